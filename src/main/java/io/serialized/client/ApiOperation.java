@@ -0,0 +1,156 @@
+package io.serialized.client;
+
+import okhttp3.Request;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Describes which Serialized API operation a request performs.
+ * <p>
+ * The {@link #name()} identifies the kind of operation (e.g. {@code aggregate.load}) while the
+ * {@link #resource()} identifies the endpoint family the request targets (e.g. {@code aggregates/order}).
+ */
+public final class ApiOperation {
+
+  private final String name;
+  private final String resource;
+
+  public ApiOperation(String name, String resource) {
+    this.name = name;
+    this.resource = resource;
+  }
+
+  /**
+   * Classifies a request by its method and path.
+   */
+  public static ApiOperation of(Request request) {
+    String method = request.method();
+    List<String> segments = request.url().pathSegments();
+
+    for (int i = 0; i < segments.size(); i++) {
+      List<String> rest = segments.subList(i + 1, segments.size());
+      switch (segments.get(i)) {
+        case "aggregates":
+          return aggregateOperation(method, rest);
+        case "feeds":
+          return feedOperation(method, rest);
+        case "projections":
+          return projectionOperation(method, rest);
+        case "reactions":
+          return reactionOperation(method, rest);
+        case "tenants":
+          return tenantOperation(method);
+        default:
+          // Skip any path prefix of the API root
+      }
+    }
+    return new ApiOperation(method.toLowerCase(), request.url().encodedPath());
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public String resource() {
+    return resource;
+  }
+
+  private static ApiOperation aggregateOperation(String method, List<String> rest) {
+    String resource = rest.isEmpty() ? "aggregates" : "aggregates/" + rest.get(0);
+    switch (method) {
+      case "GET":
+        return new ApiOperation("aggregate.load", resource);
+      case "HEAD":
+        return new ApiOperation("aggregate.exists", resource);
+      case "DELETE":
+        return new ApiOperation("aggregate.delete", resource);
+      default:
+        boolean bulk = rest.size() == 2 && rest.get(1).equals("events");
+        return new ApiOperation(bulk ? "aggregate.bulkSave" : "aggregate.save", resource);
+    }
+  }
+
+  private static ApiOperation feedOperation(String method, List<String> rest) {
+    if (rest.isEmpty()) {
+      return new ApiOperation("feed.list", "feeds");
+    }
+    String resource = "feeds/" + rest.get(0);
+    return new ApiOperation(method.equals("HEAD") ? "feed.sequenceNumber" : "feed.poll", resource);
+  }
+
+  private static ApiOperation projectionOperation(String method, List<String> rest) {
+    if (rest.isEmpty() || rest.get(0).equals("definitions")) {
+      return definitionOperation("projection", "projections/definitions", method, rest);
+    }
+    String resource = rest.size() > 1 ? "projections/" + rest.get(0) + "/" + rest.get(1) : "projections/" + rest.get(0);
+    if (method.equals("DELETE")) {
+      return new ApiOperation("projection.delete", resource);
+    } else if (rest.get(rest.size() - 1).equals("_count")) {
+      return new ApiOperation("projection.count", resource);
+    } else if (rest.get(0).equals("single") && rest.size() == 2) {
+      return new ApiOperation("projection.list", resource);
+    } else {
+      return new ApiOperation("projection.query", resource);
+    }
+  }
+
+  private static ApiOperation reactionOperation(String method, List<String> rest) {
+    if (!rest.isEmpty() && rest.get(0).equals("definitions")) {
+      return definitionOperation("reaction", "reactions/definitions", method, rest);
+    }
+    switch (method) {
+      case "GET":
+        return new ApiOperation("reaction.list", "reactions");
+      case "DELETE":
+        return new ApiOperation("reaction.delete", "reactions");
+      default:
+        return new ApiOperation("reaction.execute", "reactions");
+    }
+  }
+
+  private static ApiOperation tenantOperation(String method) {
+    switch (method) {
+      case "GET":
+        return new ApiOperation("tenant.list", "tenants");
+      case "POST":
+        return new ApiOperation("tenant.add", "tenants");
+      case "PUT":
+        return new ApiOperation("tenant.update", "tenants");
+      default:
+        return new ApiOperation("tenant.delete", "tenants");
+    }
+  }
+
+  private static ApiOperation definitionOperation(String api, String resource, String method, List<String> rest) {
+    switch (method) {
+      case "GET":
+        return new ApiOperation(api + ".definition." + (rest.size() > 1 ? "get" : "list"), resource);
+      case "POST":
+        return new ApiOperation(api + ".definition.create", resource);
+      case "PUT":
+        return new ApiOperation(api + ".definition.update", resource);
+      default:
+        return new ApiOperation(api + ".definition.delete", resource);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ApiOperation that = (ApiOperation) o;
+    return name.equals(that.name) && resource.equals(that.resource);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, resource);
+  }
+
+  @Override
+  public String toString() {
+    return name + " " + resource;
+  }
+
+}
@@ -0,0 +1,233 @@
+package io.serialized.client;
+
+import io.serialized.client.metrics.ConnectionTimings;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Connection-level timestamps for a single call, attached to the request as a tag and filled in by
+ * the {@link EventListener} created by {@link #eventListenerFactory(EventListener.Factory)}.
+ */
+class CallTimings {
+
+  private volatile long dnsStart;
+  private volatile long dnsEnd;
+  private volatile long connectStart;
+  private volatile long connectEnd;
+  private volatile long secureConnectStart;
+  private volatile long secureConnectEnd;
+  private volatile long requestEnd;
+  private volatile long responseHeadersStart;
+  private volatile long responseBodyStart;
+  private volatile long responseBodyEnd;
+  private volatile boolean connectionAcquired;
+
+  /**
+   * Creates a factory recording timings for all requests tagged with {@link CallTimings}, while
+   * forwarding every event to the listeners created by the given factory.
+   */
+  static EventListener.Factory eventListenerFactory(EventListener.Factory delegateFactory) {
+    return call -> {
+      EventListener delegate = delegateFactory.create(call);
+      CallTimings timings = call.request().tag(CallTimings.class);
+      return timings == null ? delegate : timings.new Listener(delegate);
+    };
+  }
+
+  ConnectionTimings toConnectionTimings() {
+    long requestWritten = requestEnd;
+    long bodyEnd = responseBodyEnd;
+    return new ConnectionTimings(
+        duration(dnsStart, dnsEnd),
+        duration(connectStart, connectEnd),
+        duration(secureConnectStart, secureConnectEnd),
+        duration(requestWritten, responseHeadersStart),
+        duration(responseBodyStart, bodyEnd),
+        // Calls failing before getting a connection, e.g. on DNS, reused nothing
+        connectionAcquired && connectStart == 0);
+  }
+
+  private static long duration(long start, long end) {
+    return start == 0 || end < start ? 0 : end - start;
+  }
+
+  private class Listener extends EventListener {
+
+    private final EventListener delegate;
+
+    Listener(EventListener delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void callStart(Call call) {
+      delegate.callStart(call);
+    }
+
+    @Override
+    public void proxySelectStart(Call call, HttpUrl url) {
+      delegate.proxySelectStart(call, url);
+    }
+
+    @Override
+    public void proxySelectEnd(Call call, HttpUrl url, List<Proxy> proxies) {
+      delegate.proxySelectEnd(call, url, proxies);
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+      dnsStart = System.nanoTime();
+      delegate.dnsStart(call, domainName);
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+      dnsEnd = System.nanoTime();
+      delegate.dnsEnd(call, domainName, inetAddressList);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+      connectStart = System.nanoTime();
+      delegate.connectStart(call, inetSocketAddress, proxy);
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+      secureConnectStart = System.nanoTime();
+      delegate.secureConnectStart(call);
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+      secureConnectEnd = System.nanoTime();
+      delegate.secureConnectEnd(call, handshake);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+      connectEnd = System.nanoTime();
+      delegate.connectEnd(call, inetSocketAddress, proxy, protocol);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+      connectEnd = System.nanoTime();
+      delegate.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+      connectionAcquired = true;
+      delegate.connectionAcquired(call, connection);
+    }
+
+    @Override
+    public void connectionReleased(Call call, Connection connection) {
+      delegate.connectionReleased(call, connection);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+      delegate.requestHeadersStart(call);
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+      requestEnd = System.nanoTime();
+      delegate.requestHeadersEnd(call, request);
+    }
+
+    @Override
+    public void requestBodyStart(Call call) {
+      delegate.requestBodyStart(call);
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+      requestEnd = System.nanoTime();
+      delegate.requestBodyEnd(call, byteCount);
+    }
+
+    @Override
+    public void requestFailed(Call call, IOException ioe) {
+      delegate.requestFailed(call, ioe);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+      responseHeadersStart = System.nanoTime();
+      delegate.responseHeadersStart(call);
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+      delegate.responseHeadersEnd(call, response);
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+      responseBodyStart = System.nanoTime();
+      delegate.responseBodyStart(call);
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+      responseBodyEnd = System.nanoTime();
+      delegate.responseBodyEnd(call, byteCount);
+    }
+
+    @Override
+    public void responseFailed(Call call, IOException ioe) {
+      delegate.responseFailed(call, ioe);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+      delegate.callEnd(call);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+      delegate.callFailed(call, ioe);
+    }
+
+    @Override
+    public void canceled(Call call) {
+      delegate.canceled(call);
+    }
+
+    @Override
+    public void satisfactionFailure(Call call, Response response) {
+      delegate.satisfactionFailure(call, response);
+    }
+
+    @Override
+    public void cacheHit(Call call, Response response) {
+      delegate.cacheHit(call, response);
+    }
+
+    @Override
+    public void cacheMiss(Call call) {
+      delegate.cacheMiss(call);
+    }
+
+    @Override
+    public void cacheConditionalHit(Call call, Response cachedResponse) {
+      delegate.cacheConditionalHit(call, cachedResponse);
+    }
+  }
+
+}
@@ -0,0 +1,316 @@
+package io.serialized.client;
+
+import io.serialized.client.metrics.CircuitState;
+import io.serialized.client.metrics.SerializedMetrics;
+import okhttp3.Request;
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+import static io.serialized.client.metrics.CircuitState.CLOSED;
+import static io.serialized.client.metrics.CircuitState.HALF_OPEN;
+import static io.serialized.client.metrics.CircuitState.OPEN;
+import static java.util.logging.Level.WARNING;
+
+/**
+ * Circuit breakers per endpoint family, as given by {@link ApiOperation#resource()} (e.g. {@code aggregates/order},
+ * {@code feeds/order} or {@code projections/single/orders}).
+ * <p>
+ * A circuit opens when the failure rate or the slow call rate of its last calls exceeds the configured thresholds,
+ * rejecting calls with a {@link CircuitBreakerOpenException} instead of tying up threads on a degraded endpoint.
+ * After the open duration a limited number of probe calls are let through, closing the circuit again if all of
+ * them succeed. State changes are reported to {@link SerializedMetrics#circuitStateChanged(String, CircuitState)}.
+ */
+public class CircuitBreaker {
+
+  public static final CircuitBreaker NONE = new CircuitBreaker();
+
+  private static final Logger logger = Logger.getLogger(CircuitBreaker.class.getName());
+
+  private static final Permit NO_PERMIT = new Permit(null, null);
+
+  private final boolean enabled;
+  private final int windowSize;
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final double slowCallRateThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final int halfOpenCalls;
+
+  private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+  private CircuitBreaker() {
+    this.enabled = false;
+    this.windowSize = 0;
+    this.minimumCalls = 0;
+    this.failureRateThreshold = 1;
+    this.slowCallRateThreshold = 1;
+    this.slowCallNanos = Long.MAX_VALUE;
+    this.openNanos = 0;
+    this.halfOpenCalls = 0;
+  }
+
+  private CircuitBreaker(Builder builder) {
+    this.enabled = true;
+    this.windowSize = builder.windowSize;
+    this.minimumCalls = builder.minimumCalls;
+    this.failureRateThreshold = builder.failureRateThreshold;
+    this.slowCallRateThreshold = builder.slowCallRateThreshold;
+    this.slowCallNanos = builder.slowCallDuration.toNanos();
+    this.openNanos = builder.openDuration.toNanos();
+    this.halfOpenCalls = builder.halfOpenCalls;
+  }
+
+  /**
+   * @param resource The endpoint family, as given by {@link ApiOperation#resource()}.
+   * @return The current state of the circuit, closed if no call has been made yet.
+   */
+  public CircuitState state(String resource) {
+    Circuit circuit = circuits.get(resource);
+    return circuit == null ? CLOSED : circuit.state();
+  }
+
+  /**
+   * @throws CircuitBreakerOpenException if the circuit of the endpoint family targeted by the request is open.
+   */
+  Permit acquire(Request request, SerializedMetrics metrics) {
+    if (!enabled) {
+      return NO_PERMIT;
+    }
+    String resource = ApiOperation.of(request).resource();
+    Circuit circuit = circuits.computeIfAbsent(resource, Circuit::new);
+    report(metrics, resource, circuit.tryAcquire());
+    return new Permit(circuit, metrics);
+  }
+
+  private static void report(SerializedMetrics metrics, String resource, CircuitState newState) {
+    if (newState != null) {
+      try {
+        metrics.circuitStateChanged(resource, newState);
+      } catch (RuntimeException e) {
+        logger.log(WARNING, "Failed to report circuit state", e);
+      }
+    }
+  }
+
+  /**
+   * Permission for a single call, to be released exactly once when the call has completed.
+   */
+  static class Permit {
+
+    private final Circuit circuit;
+    private final SerializedMetrics metrics;
+    private final long startNanos = System.nanoTime();
+
+    private Permit(Circuit circuit, SerializedMetrics metrics) {
+      this.circuit = circuit;
+      this.metrics = metrics;
+    }
+
+    /**
+     * @param failed true if the call failed in a way indicating that the endpoint is unhealthy.
+     */
+    void release(boolean failed) {
+      if (circuit != null) {
+        report(metrics, circuit.resource, circuit.onResult(failed, System.nanoTime() - startNanos));
+      }
+    }
+
+    /**
+     * Releases the permit without recording an outcome, e.g. when the call was never sent.
+     */
+    void ignore() {
+      if (circuit != null) {
+        circuit.onIgnored();
+      }
+    }
+  }
+
+  /**
+   * Count based sliding window of the latest call outcomes of a single endpoint family.
+   */
+  private class Circuit {
+
+    private final String resource;
+    private final boolean[] failures = new boolean[windowSize];
+    private final boolean[] slowCalls = new boolean[windowSize];
+
+    private CircuitState state = CLOSED;
+    private int index;
+    private int size;
+    private int failureCount;
+    private int slowCallCount;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private Circuit(String resource) {
+      this.resource = resource;
+    }
+
+    synchronized CircuitState state() {
+      return state;
+    }
+
+    /**
+     * @return The new state if the circuit changed state.
+     */
+    synchronized CircuitState tryAcquire() {
+      CircuitState newState = null;
+      if (state == OPEN) {
+        if (System.nanoTime() - openedAtNanos < openNanos) {
+          throw new CircuitBreakerOpenException(resource);
+        }
+        newState = transition(HALF_OPEN);
+      }
+      if (state == HALF_OPEN) {
+        if (halfOpenPermits == 0) {
+          throw new CircuitBreakerOpenException(resource);
+        }
+        halfOpenPermits--;
+      }
+      return newState;
+    }
+
+    synchronized CircuitState onResult(boolean failed, long durationNanos) {
+      boolean slow = durationNanos > slowCallNanos;
+      if (state == HALF_OPEN) {
+        if (failed || slow) {
+          return transition(OPEN);
+        }
+        return ++halfOpenSuccesses >= halfOpenCalls ? transition(CLOSED) : null;
+      }
+      if (state == OPEN) {
+        // Call started before the circuit opened
+        return null;
+      }
+
+      if (size == windowSize) {
+        failureCount -= failures[index] ? 1 : 0;
+        slowCallCount -= slowCalls[index] ? 1 : 0;
+      } else {
+        size++;
+      }
+      failures[index] = failed;
+      slowCalls[index] = slow;
+      failureCount += failed ? 1 : 0;
+      slowCallCount += slow ? 1 : 0;
+      index = (index + 1) % windowSize;
+
+      if (size >= minimumCalls && (failureCount >= size * failureRateThreshold || slowCallCount >= size * slowCallRateThreshold)) {
+        return transition(OPEN);
+      }
+      return null;
+    }
+
+    synchronized void onIgnored() {
+      if (state == HALF_OPEN && halfOpenPermits + halfOpenSuccesses < halfOpenCalls) {
+        halfOpenPermits++;
+      }
+    }
+
+    private CircuitState transition(CircuitState newState) {
+      state = newState;
+      switch (newState) {
+        case OPEN:
+          openedAtNanos = System.nanoTime();
+          break;
+        case HALF_OPEN:
+          halfOpenPermits = halfOpenCalls;
+          halfOpenSuccesses = 0;
+          break;
+        case CLOSED:
+          index = 0;
+          size = 0;
+          failureCount = 0;
+          slowCallCount = 0;
+          break;
+      }
+      return newState;
+    }
+  }
+
+  public static class Builder {
+
+    private int windowSize = 50;
+    private int minimumCalls = 20;
+    private double failureRateThreshold = 0.5;
+    private double slowCallRateThreshold = 0.8;
+    private Duration slowCallDuration = Duration.ofSeconds(10);
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int halfOpenCalls = 3;
+
+    /**
+     * Number of latest calls per endpoint family the rates are calculated from. Default is 50.
+     */
+    public Builder withWindowSize(int windowSize) {
+      this.windowSize = windowSize;
+      return this;
+    }
+
+    /**
+     * Minimum number of calls before the circuit can open. Default is 20.
+     */
+    public Builder withMinimumCalls(int minimumCalls) {
+      this.minimumCalls = minimumCalls;
+      return this;
+    }
+
+    /**
+     * Rate of I/O errors, 5xx and 429 responses opening the circuit, greater than 0 and at most 1. Default is 0.5.
+     */
+    public Builder withFailureRateThreshold(double failureRateThreshold) {
+      this.failureRateThreshold = failureRateThreshold;
+      return this;
+    }
+
+    /**
+     * Rate of slow calls opening the circuit, greater than 0 and at most 1. Default is 0.8.
+     */
+    public Builder withSlowCallRateThreshold(double slowCallRateThreshold) {
+      this.slowCallRateThreshold = slowCallRateThreshold;
+      return this;
+    }
+
+    /**
+     * Calls slower than this are considered slow. Default is 10s.
+     */
+    public Builder withSlowCallDuration(Duration slowCallDuration) {
+      this.slowCallDuration = slowCallDuration;
+      return this;
+    }
+
+    /**
+     * Time an open circuit waits before letting probe calls through. Default is 30s.
+     */
+    public Builder withOpenDuration(Duration openDuration) {
+      this.openDuration = openDuration;
+      return this;
+    }
+
+    /**
+     * Number of successful probe calls required to close the circuit. Default is 3.
+     */
+    public Builder withHalfOpenCalls(int halfOpenCalls) {
+      this.halfOpenCalls = halfOpenCalls;
+      return this;
+    }
+
+    public CircuitBreaker build() {
+      Validate.isTrue(windowSize > 0, "'windowSize' must be positive");
+      Validate.inclusiveBetween(1, windowSize, minimumCalls, "'minimumCalls' must be between 1 and 'windowSize'");
+      // A threshold of 0 would open the circuit on any full window
+      Validate.isTrue(failureRateThreshold > 0 && failureRateThreshold <= 1, "'failureRateThreshold' must be greater than 0 and at most 1");
+      Validate.isTrue(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1, "'slowCallRateThreshold' must be greater than 0 and at most 1");
+      Validate.notNull(slowCallDuration, "'slowCallDuration' must be set");
+      Validate.notNull(openDuration, "'openDuration' must be set");
+      Validate.isTrue(halfOpenCalls > 0, "'halfOpenCalls' must be positive");
+      return new CircuitBreaker(this);
+    }
+  }
+
+}
@@ -0,0 +1,22 @@
+package io.serialized.client;
+
+/**
+ * Thrown when a call is rejected by an open {@link CircuitBreaker} without being sent to the API.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+  private final String resource;
+
+  public CircuitBreakerOpenException(String resource) {
+    super("Circuit breaker for '" + resource + "' is open");
+    this.resource = resource;
+  }
+
+  /**
+   * @return The endpoint family whose circuit is open.
+   */
+  public String resource() {
+    return resource;
+  }
+
+}
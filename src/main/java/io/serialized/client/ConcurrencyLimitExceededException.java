@@ -0,0 +1,12 @@
+package io.serialized.client;
+
+/**
+ * Thrown when a call is rejected by the {@link ConcurrencyLimiter} without being sent to the API.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+  public ConcurrencyLimitExceededException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,307 @@
+package io.serialized.client;
+
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Adaptive limit of the number of concurrent calls made to the API.
+ * <p>
+ * The limit is adjusted using AIMD (additive increase, multiplicative decrease): it grows by one for every
+ * limit's worth of successful calls and is reduced by the backoff ratio whenever a call is slower than the
+ * latency threshold, fails with an I/O error or is rejected by the API with a 5xx or 429.
+ * Calls exceeding the limit wait in a bounded queue and fail fast with a {@link ConcurrencyLimitExceededException}
+ * when the queue is full or the maximum wait time has passed.
+ */
+public class ConcurrencyLimiter {
+
+  public static final ConcurrencyLimiter NONE = new ConcurrencyLimiter();
+
+  private static final Permit NO_PERMIT = new Permit(null);
+
+  private final boolean enabled;
+  private final int minLimit;
+  private final int maxLimit;
+  private final int maxQueueSize;
+  private final long maxWaitNanos;
+  private final long latencyThresholdNanos;
+  private final double backoffRatio;
+
+  private final Deque<CompletableFuture<Permit>> queue = new ArrayDeque<>();
+  private double limit;
+  private int inFlight;
+
+  private ConcurrencyLimiter() {
+    this.enabled = false;
+    this.minLimit = Integer.MAX_VALUE;
+    this.maxLimit = Integer.MAX_VALUE;
+    this.maxQueueSize = 0;
+    this.maxWaitNanos = 0;
+    this.latencyThresholdNanos = Long.MAX_VALUE;
+    this.backoffRatio = 1;
+    this.limit = Integer.MAX_VALUE;
+  }
+
+  private ConcurrencyLimiter(Builder builder) {
+    this.enabled = true;
+    this.minLimit = builder.minLimit;
+    this.maxLimit = builder.maxLimit;
+    this.maxQueueSize = builder.maxQueueSize;
+    this.maxWaitNanos = builder.maxWait.toNanos();
+    this.latencyThresholdNanos = builder.latencyThreshold.toNanos();
+    this.backoffRatio = builder.backoffRatio;
+    this.limit = builder.initialLimit;
+  }
+
+  /**
+   * @return The current concurrency limit.
+   */
+  public synchronized int limit() {
+    return (int) limit;
+  }
+
+  /**
+   * @return The number of calls currently in flight.
+   */
+  public synchronized int inFlight() {
+    return inFlight;
+  }
+
+  /**
+   * @return The number of calls currently waiting for the limit.
+   */
+  public synchronized int queued() {
+    return queue.size();
+  }
+
+  /**
+   * Blocks until the call is allowed to proceed.
+   *
+   * @throws ConcurrencyLimitExceededException if the queue is full or the maximum wait time has passed.
+   */
+  Permit acquire() {
+    if (!enabled) {
+      return NO_PERMIT;
+    }
+    CompletableFuture<Permit> permit = enqueue();
+    try {
+      return permit.get(maxWaitNanos, NANOSECONDS);
+    } catch (TimeoutException e) {
+      return timedOut(permit);
+    } catch (InterruptedException e) {
+      abandon(permit);
+      Thread.currentThread().interrupt();
+      throw new ClientException(e);
+    } catch (ExecutionException e) {
+      throw (ConcurrencyLimitExceededException) e.getCause();
+    }
+  }
+
+  private Permit timedOut(CompletableFuture<Permit> permit) {
+    try {
+      return timeout(permit).join();
+    } catch (CompletionException e) {
+      throw (ConcurrencyLimitExceededException) e.getCause();
+    }
+  }
+
+  /**
+   * Gives up waiting without counting it as a timeout, handing the permit back if it was granted concurrently.
+   */
+  private void abandon(CompletableFuture<Permit> permit) {
+    synchronized (this) {
+      queue.remove(permit);
+    }
+    if (!permit.cancel(false) && !permit.isCompletedExceptionally()) {
+      permit.join().ignore();
+    }
+  }
+
+  /**
+   * Returns a future completed when the call is allowed to proceed, using the given scheduler to time out waiting calls.
+   */
+  CompletableFuture<Permit> acquireAsync(ScheduledExecutorService scheduler) {
+    if (!enabled) {
+      return CompletableFuture.completedFuture(NO_PERMIT);
+    }
+    CompletableFuture<Permit> permit = enqueue();
+    if (!permit.isDone()) {
+      scheduler.schedule(() -> timeout(permit), maxWaitNanos, NANOSECONDS);
+    }
+    return permit;
+  }
+
+  private synchronized CompletableFuture<Permit> enqueue() {
+    if (inFlight < (int) limit) {
+      inFlight++;
+      return CompletableFuture.completedFuture(new Permit(this));
+    }
+    CompletableFuture<Permit> permit = new CompletableFuture<>();
+    if (queue.size() >= maxQueueSize) {
+      permit.completeExceptionally(new ConcurrencyLimitExceededException("Concurrency limit of " + (int) limit + " reached and " + queue.size() + " calls already waiting"));
+    } else {
+      queue.addLast(permit);
+    }
+    return permit;
+  }
+
+  private CompletableFuture<Permit> timeout(CompletableFuture<Permit> permit) {
+    synchronized (this) {
+      queue.remove(permit);
+    }
+    // Granted concurrently if this fails, in which case the permit is used
+    permit.completeExceptionally(new ConcurrencyLimitExceededException("Timed out waiting for concurrency limit of " + limit()));
+    return permit;
+  }
+
+  private void release(long latencyNanos, boolean dropped) {
+    synchronized (this) {
+      if (dropped || latencyNanos > latencyThresholdNanos) {
+        limit = Math.max(minLimit, limit * backoffRatio);
+      } else if (inFlight >= (int) limit) {
+        limit = Math.min(maxLimit, limit + 1 / limit);
+      }
+      inFlight--;
+    }
+    grantWaiting();
+  }
+
+  private void releaseUnused() {
+    synchronized (this) {
+      inFlight--;
+    }
+    grantWaiting();
+  }
+
+  private void grantWaiting() {
+    while (true) {
+      CompletableFuture<Permit> next;
+      synchronized (this) {
+        if (inFlight >= (int) limit || (next = queue.pollFirst()) == null) {
+          return;
+        }
+        inFlight++;
+      }
+      // Completed outside the lock as it runs the waiting call's continuation
+      if (next.complete(new Permit(this))) {
+        return;
+      }
+      synchronized (this) {
+        inFlight--;
+      }
+    }
+  }
+
+  /**
+   * Permission for a single call, to be released exactly once when the call has completed.
+   */
+  static class Permit {
+
+    private final ConcurrencyLimiter limiter;
+    private final long startNanos = System.nanoTime();
+
+    private Permit(ConcurrencyLimiter limiter) {
+      this.limiter = limiter;
+    }
+
+    /**
+     * @param dropped true if the call failed in a way indicating that the API is overloaded.
+     */
+    void release(boolean dropped) {
+      if (limiter != null) {
+        limiter.release(System.nanoTime() - startNanos, dropped);
+      }
+    }
+
+    /**
+     * Releases the permit without adjusting the limit, e.g. when the call was never sent.
+     */
+    void ignore() {
+      if (limiter != null) {
+        limiter.releaseUnused();
+      }
+    }
+  }
+
+  public static class Builder {
+
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    private int maxQueueSize = 100;
+    private Duration maxWait = Duration.ofSeconds(5);
+    private Duration latencyThreshold = Duration.ofSeconds(2);
+    private double backoffRatio = 0.9;
+
+    /**
+     * Initial concurrency limit. Default is 20.
+     */
+    public Builder withInitialLimit(int initialLimit) {
+      this.initialLimit = initialLimit;
+      return this;
+    }
+
+    public Builder withMinLimit(int minLimit) {
+      this.minLimit = minLimit;
+      return this;
+    }
+
+    public Builder withMaxLimit(int maxLimit) {
+      this.maxLimit = maxLimit;
+      return this;
+    }
+
+    /**
+     * Maximum number of calls waiting for the limit before failing fast. Default is 100.
+     */
+    public Builder withMaxQueueSize(int maxQueueSize) {
+      this.maxQueueSize = maxQueueSize;
+      return this;
+    }
+
+    /**
+     * Maximum time a call waits for the limit. Default is 5s.
+     */
+    public Builder withMaxWait(Duration maxWait) {
+      this.maxWait = maxWait;
+      return this;
+    }
+
+    /**
+     * Calls slower than this reduce the limit. Default is 2s.
+     */
+    public Builder withLatencyThreshold(Duration latencyThreshold) {
+      this.latencyThreshold = latencyThreshold;
+      return this;
+    }
+
+    /**
+     * Factor the limit is multiplied with when reduced. Default is 0.9.
+     */
+    public Builder withBackoffRatio(double backoffRatio) {
+      this.backoffRatio = backoffRatio;
+      return this;
+    }
+
+    public ConcurrencyLimiter build() {
+      Validate.isTrue(minLimit > 0, "'minLimit' must be positive");
+      Validate.isTrue(maxLimit >= minLimit, "'maxLimit' must not be less than 'minLimit'");
+      Validate.inclusiveBetween(minLimit, maxLimit, initialLimit, "'initialLimit' must be between 'minLimit' and 'maxLimit'");
+      Validate.isTrue(maxQueueSize >= 0, "'maxQueueSize' cannot be negative");
+      Validate.isTrue(backoffRatio > 0 && backoffRatio < 1, "'backoffRatio' must be between 0 and 1");
+      Validate.notNull(maxWait, "'maxWait' must be set");
+      Validate.notNull(latencyThreshold, "'latencyThreshold' must be set");
+      return new ConcurrencyLimiter(this);
+    }
+  }
+
+}
@@ -0,0 +1,193 @@
+package io.serialized.client;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Routes calls across several equivalent API roots.
+ * <p>
+ * Each call goes to the better of two randomly picked endpoints (power of two choices), scored by their peak
+ * sensitive exponentially weighted moving average latency and number of calls in flight. Endpoints failing with an
+ * I/O error, a 5xx or a 429 are ejected for a while. Calls that could not connect at all fail over to the next
+ * endpoint, while other failures are left to the {@link RetryPolicy}, whose retries will be routed elsewhere.
+ * <p>
+ * Requests are written against the first root and rewritten to the chosen endpoint.
+ */
+class EndpointRouter {
+
+  /**
+   * Time after which a latency sample has lost about two thirds of its weight.
+   */
+  private static final long DECAY_NANOS = SECONDS.toNanos(10);
+  private static final long EJECT_NANOS = SECONDS.toNanos(5);
+
+  private final String primaryRoot;
+  private final LongSupplier ticker;
+  private final List<Endpoint> endpoints = new ArrayList<>();
+
+  EndpointRouter(List<HttpUrl> roots) {
+    this(roots, System::nanoTime);
+  }
+
+  EndpointRouter(List<HttpUrl> roots, LongSupplier ticker) {
+    this.primaryRoot = roots.get(0).toString();
+    this.ticker = ticker;
+    roots.forEach(root -> endpoints.add(new Endpoint(root.toString(), ticker)));
+  }
+
+  /**
+   * @param recordLatency false for long polls, which are slow by design.
+   */
+  Interceptor interceptor(boolean recordLatency) {
+    return chain -> {
+      Request request = chain.request();
+      String url = request.url().toString();
+      if (!url.startsWith(primaryRoot)) {
+        return chain.proceed(request);
+      }
+      String path = url.substring(primaryRoot.length());
+
+      List<Endpoint> tried = new ArrayList<>();
+      while (true) {
+        Endpoint endpoint = choose(tried);
+        tried.add(endpoint);
+        Request routed = request.newBuilder().url(HttpUrl.get(endpoint.root + path)).build();
+        long startNanos = ticker.getAsLong();
+        endpoint.inFlight.incrementAndGet();
+        try {
+          Response response = chain.proceed(routed);
+          boolean failed = response.code() >= 500 || response.code() == 429;
+          // Failures are often fast and would make a failing endpoint look attractive
+          endpoint.onResult(failed, recordLatency && !failed ? ticker.getAsLong() - startNanos : -1);
+          return response;
+        } catch (ConnectException | NoRouteToHostException | UnknownHostException e) {
+          endpoint.onResult(true, -1);
+          if (tried.size() == endpoints.size() || chain.call().isCanceled()) {
+            throw e;
+          }
+        } catch (IOException | RuntimeException e) {
+          // Cancelled calls, e.g. losing hedges, say nothing about the endpoint
+          if (!chain.call().isCanceled()) {
+            endpoint.onResult(true, -1);
+          }
+          throw e;
+        } finally {
+          endpoint.inFlight.decrementAndGet();
+        }
+      }
+    };
+  }
+
+  /**
+   * @return The best of two random endpoints not yet tried, preferring endpoints that aren't ejected.
+   */
+  Endpoint choose(List<Endpoint> tried) {
+    long now = ticker.getAsLong();
+    List<Endpoint> candidates = new ArrayList<>();
+    for (Endpoint endpoint : endpoints) {
+      if (!tried.contains(endpoint) && !endpoint.isEjected(now)) {
+        candidates.add(endpoint);
+      }
+    }
+    if (candidates.isEmpty()) {
+      for (Endpoint endpoint : endpoints) {
+        if (!tried.contains(endpoint)) {
+          candidates.add(endpoint);
+        }
+      }
+      // All ejected, so try the one that will recover first
+      return Collections.min(candidates, (a, b) -> Long.compare(a.ejectedUntilNanos, b.ejectedUntilNanos));
+    }
+    if (candidates.size() == 1) {
+      return candidates.get(0);
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(candidates.size());
+    int second = random.nextInt(candidates.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    Endpoint a = candidates.get(first);
+    Endpoint b = candidates.get(second);
+    return a.score(now) <= b.score(now) ? a : b;
+  }
+
+  List<Endpoint> endpoints() {
+    return endpoints;
+  }
+
+  static class Endpoint {
+
+    private final String root;
+    private final LongSupplier ticker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double ewmaNanos;
+    private volatile long lastSampleNanos;
+    private volatile long ejectedUntilNanos;
+
+    private Endpoint(String root, LongSupplier ticker) {
+      this.root = root;
+      this.ticker = ticker;
+      this.lastSampleNanos = ticker.getAsLong();
+      this.ejectedUntilNanos = lastSampleNanos;
+    }
+
+    String root() {
+      return root;
+    }
+
+    /**
+     * The latency decays towards zero while no samples arrive, as in Finagle's PeakEwma, so that an endpoint
+     * avoided after a latency spike is tried again once the spike has worn off.
+     */
+    double score(long nowNanos) {
+      return ewmaNanos * decay(nowNanos) * (inFlight.get() + 1);
+    }
+
+    boolean isEjected(long nowNanos) {
+      return nowNanos - ejectedUntilNanos < 0;
+    }
+
+    /**
+     * @param latencyNanos The latency of the call, or negative if not to be recorded.
+     */
+    synchronized void onResult(boolean failed, long latencyNanos) {
+      long now = ticker.getAsLong();
+      if (failed) {
+        ejectedUntilNanos = now + EJECT_NANOS;
+      }
+      if (latencyNanos < 0) {
+        return;
+      }
+      double weight = decay(now);
+      if (latencyNanos > ewmaNanos * weight) {
+        // Peak sensitive, so that an endpoint slowing down is avoided right away
+        ewmaNanos = latencyNanos;
+      } else {
+        ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+      }
+      lastSampleNanos = now;
+    }
+
+    private double decay(long nowNanos) {
+      return Math.exp(-(nowNanos - lastSampleNanos) / (double) DECAY_NANOS);
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+package io.serialized.client;
+
+import io.serialized.client.metrics.Histogram;
+import okhttp3.Request;
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+
+/**
+ * Hedging of idempotent reads: if a GET call has not completed within the hedging delay, an identical call is sent
+ * and whichever succeeds first is used while the other is cancelled.
+ * <p>
+ * The delay is either fixed or a percentile of the latencies observed so far, e.g. the p95, so that only the slowest
+ * calls are hedged. Hedges are limited by a {@link RetryBudget} to a ratio of the traffic.
+ */
+public class HedgingPolicy {
+
+  public static final HedgingPolicy NONE = new HedgingPolicy();
+
+  /**
+   * Number of samples needed before the percentile delay replaces the initial delay.
+   */
+  private static final int MIN_SAMPLES = 100;
+
+  private final boolean enabled;
+  private final long delayNanos;
+  private final double percentile;
+  private final RetryBudget budget;
+  private final Histogram latencies = new Histogram();
+
+  private volatile long percentileDelayNanos;
+
+  private HedgingPolicy() {
+    this.enabled = false;
+    this.delayNanos = 0;
+    this.percentile = 0;
+    this.budget = null;
+  }
+
+  private HedgingPolicy(Builder builder) {
+    this.enabled = true;
+    this.delayNanos = builder.delay.toNanos();
+    this.percentile = builder.percentile;
+    this.budget = new RetryBudget(builder.maxBurst, builder.maxHedgeRatio);
+    this.percentileDelayNanos = delayNanos;
+  }
+
+  boolean appliesTo(Request request) {
+    return enabled && request.method().equals("GET");
+  }
+
+  /**
+   * @return The delay before hedging a call that has just been sent.
+   */
+  long delayNanos() {
+    budget.deposit();
+    return percentile == 0 ? delayNanos : percentileDelayNanos;
+  }
+
+  boolean tryHedge() {
+    return budget.tryWithdraw();
+  }
+
+  void record(long latencyNanos) {
+    if (percentile == 0) {
+      return;
+    }
+    latencies.record(latencyNanos);
+    long count = latencies.count();
+    // Recalculating the percentile is comparatively expensive, so do it periodically
+    if (count >= MIN_SAMPLES && count % 64 == 0) {
+      percentileDelayNanos = Math.max(delayNanos, latencies.percentile(percentile));
+    }
+  }
+
+  /**
+   * @return The current hedging delay.
+   */
+  public Duration delay() {
+    return Duration.ofNanos(percentile == 0 ? delayNanos : percentileDelayNanos);
+  }
+
+  public static class Builder {
+
+    private Duration delay = Duration.ofMillis(100);
+    private double percentile = 95;
+    private double maxHedgeRatio = 0.05;
+    private int maxBurst = 10;
+
+    /**
+     * The hedging delay, or the minimum and initial delay when using a percentile. Default is 100ms.
+     */
+    public Builder withDelay(Duration delay) {
+      this.delay = delay;
+      return this;
+    }
+
+    /**
+     * Percentile (between 0 and 100) of the observed latencies used as hedging delay. Default is 95.
+     * Zero uses the fixed delay.
+     */
+    public Builder withPercentile(double percentile) {
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * Maximum ratio of calls being hedged over time. Default is 0.05.
+     */
+    public Builder withMaxHedgeRatio(double maxHedgeRatio) {
+      this.maxHedgeRatio = maxHedgeRatio;
+      return this;
+    }
+
+    /**
+     * Maximum number of hedges in a burst. Default is 10.
+     */
+    public Builder withMaxBurst(int maxBurst) {
+      this.maxBurst = maxBurst;
+      return this;
+    }
+
+    public HedgingPolicy build() {
+      Validate.notNull(delay, "'delay' must be set");
+      Validate.isTrue(!delay.isNegative(), "'delay' cannot be negative");
+      Validate.inclusiveBetween(0.0, 100.0, percentile, "'percentile' must be between 0 and 100");
+      Validate.inclusiveBetween(0.0, 1.0, maxHedgeRatio, "'maxHedgeRatio' must be between 0 and 1");
+      Validate.isTrue(maxBurst >= 0, "'maxBurst' cannot be negative");
+      return new HedgingPolicy(this);
+    }
+  }
+
+}
@@ -0,0 +1,40 @@
+package io.serialized.client;
+
+import okhttp3.Protocol;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * HTTP protocol versions used to talk to the API.
+ */
+public enum HttpVersion {
+
+  /**
+   * HTTP/1.1 only, using a pool of connections.
+   */
+  HTTP_1_1(Collections.singletonList(Protocol.HTTP_1_1)),
+
+  /**
+   * HTTP/2 negotiated over TLS, falling back to HTTP/1.1.
+   */
+  HTTP_2(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)),
+
+  /**
+   * Cleartext HTTP/2 without upgrade (h2c with prior knowledge), e.g. for local stand-ins of the API or proxies.
+   * Requires an {@code http} API root.
+   */
+  H2C_PRIOR_KNOWLEDGE(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+
+  private final List<Protocol> protocols;
+
+  HttpVersion(List<Protocol> protocols) {
+    this.protocols = protocols;
+  }
+
+  List<Protocol> protocols() {
+    return protocols;
+  }
+
+}
@@ -0,0 +1,131 @@
+package io.serialized.client;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static io.serialized.client.SerializedClientConfig.JSON_MEDIA_TYPE;
+
+/**
+ * Request body that serializes its payload straight into the request sink when the request is sent,
+ * instead of first rendering it into an intermediate String.
+ */
+class JsonRequestBody extends RequestBody {
+
+  private static final String GZIP = "gzip";
+
+  private final ObjectWriter objectWriter;
+  private final Object payload;
+  private final ByteString content;
+  private final boolean gzip;
+  private volatile long bytesWritten;
+
+  JsonRequestBody(ObjectWriter objectWriter, Object payload) {
+    this(objectWriter, payload, null, false);
+  }
+
+  private JsonRequestBody(ObjectWriter objectWriter, Object payload, ByteString content, boolean gzip) {
+    this.objectWriter = objectWriter;
+    this.payload = payload;
+    this.content = content;
+    this.gzip = gzip;
+  }
+
+  /**
+   * Creates a body that is gzipped while being serialized if the payload is larger than the threshold.
+   * <p>
+   * To find out, the payload is serialized into memory up to the threshold. Smaller payloads are then sent as is,
+   * with a known content length.
+   */
+  static JsonRequestBody compressedAbove(int thresholdBytes, ObjectWriter objectWriter, Object payload) {
+    Buffer buffer = new Buffer();
+    BoundedOutputStream out = new BoundedOutputStream(buffer.outputStream(), thresholdBytes);
+    try {
+      objectWriter.writeValue(out, payload);
+      return new JsonRequestBody(objectWriter, payload, buffer.readByteString(), false);
+    } catch (IOException e) {
+      if (out.exceeded) {
+        return new JsonRequestBody(objectWriter, payload, null, true);
+      }
+      throw new ClientException(e);
+    }
+  }
+
+  @Override
+  public MediaType contentType() {
+    return JSON_MEDIA_TYPE;
+  }
+
+  @Override
+  public long contentLength() {
+    return content == null ? -1 : content.size();
+  }
+
+  /**
+   * @return The value of the {@code Content-Encoding} header, or null if not encoded.
+   */
+  String contentEncoding() {
+    return gzip ? GZIP : null;
+  }
+
+  @Override
+  public void writeTo(BufferedSink sink) throws IOException {
+    if (content != null) {
+      sink.write(content);
+      bytesWritten = content.size();
+      return;
+    }
+    CountingOutputStream out = new CountingOutputStream(sink.outputStream());
+    if (gzip) {
+      GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+      objectWriter.writeValue(gzipOut, payload);
+      gzipOut.finish();
+    } else {
+      objectWriter.writeValue(out, payload);
+    }
+    bytesWritten = out.getByteCount();
+  }
+
+  /**
+   * @return Number of bytes written the last time this body was sent.
+   */
+  long bytesWritten() {
+    return bytesWritten;
+  }
+
+  private static class BoundedOutputStream extends OutputStream {
+
+    private final OutputStream delegate;
+    private long remaining;
+    private boolean exceeded;
+
+    private BoundedOutputStream(OutputStream delegate, long limit) {
+      this.delegate = delegate;
+      this.remaining = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      if (length > remaining) {
+        exceeded = true;
+        throw new IOException("Size limit exceeded");
+      }
+      remaining -= length;
+      delegate.write(bytes, offset, length);
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+package io.serialized.client;
+
+import io.serialized.client.metrics.RequestMetrics;
+import io.serialized.client.metrics.SerializedMetrics;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static io.serialized.client.SerializedOkHttpClient.SERIALIZED_TENANT_ID;
+import static io.serialized.client.metrics.RequestMetrics.requestMetrics;
+import static java.util.logging.Level.WARNING;
+
+/**
+ * Measures a single call and reports it to the configured {@link SerializedMetrics}.
+ */
+class RequestRecorder {
+
+  private static final Logger logger = Logger.getLogger(RequestRecorder.class.getName());
+
+  private final SerializedMetrics metrics;
+  private final Request request;
+  private final CallTimings callTimings = new CallTimings();
+  private final int attempt;
+  private final long startNanos = System.nanoTime();
+
+  private long responseNanos;
+  private int statusCode;
+  private long bytesReceived;
+
+  RequestRecorder(SerializedMetrics metrics, Request request, int attempt) {
+    this.metrics = metrics;
+    this.attempt = attempt;
+    this.request = metrics == SerializedMetrics.NONE ? request : request.newBuilder().tag(CallTimings.class, callTimings).build();
+  }
+
+  /**
+   * @return The request to execute, tagged for connection-level timings when metrics are enabled.
+   */
+  Request request() {
+    return request;
+  }
+
+  /**
+   * Marks the response headers as received and wraps the body to count the bytes read from it.
+   */
+  Response responseReceived(Response response) {
+    this.responseNanos = System.nanoTime();
+    this.statusCode = response.code();
+
+    ResponseBody body = response.body();
+    if (body == null || metrics == SerializedMetrics.NONE) {
+      return response;
+    }
+
+    ForwardingSource countingSource = new ForwardingSource(body.source()) {
+      @Override
+      public long read(Buffer sink, long byteCount) throws IOException {
+        long read = super.read(sink, byteCount);
+        if (read > 0) {
+          bytesReceived += read;
+        }
+        return read;
+      }
+    };
+    ResponseBody countingBody = ResponseBody.create(Okio.buffer(countingSource), body.contentType(), body.contentLength());
+    return response.newBuilder().body(countingBody).build();
+  }
+
+  void completed(Throwable failure) {
+    if (metrics == SerializedMetrics.NONE) {
+      return;
+    }
+
+    long endNanos = System.nanoTime();
+    boolean responded = responseNanos != 0;
+    String tenantId = request.header(SERIALIZED_TENANT_ID);
+
+    RequestMetrics requestMetrics = requestMetrics(ApiOperation.of(request), request.method())
+        .withTenantId(tenantId == null ? null : UUID.fromString(tenantId))
+        .withAttempt(attempt)
+        .withStatusCode(statusCode)
+        .withBytesSent(bytesSent())
+        .withBytesReceived(bytesReceived)
+        .withNetworkNanos((responded ? responseNanos : endNanos) - startNanos)
+        .withParseNanos(responded ? endNanos - responseNanos : 0)
+        .withConnectionTimings(callTimings.toConnectionTimings())
+        .withFailure(failure)
+        .build();
+
+    try {
+      metrics.requestCompleted(requestMetrics);
+    } catch (RuntimeException e) {
+      logger.log(WARNING, "Failed to report request metrics", e);
+    }
+  }
+
+  private long bytesSent() {
+    if (request.body() instanceof JsonRequestBody) {
+      return ((JsonRequestBody) request.body()).bytesWritten();
+    }
+    try {
+      return request.body() == null ? 0 : Math.max(0, request.body().contentLength());
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+}
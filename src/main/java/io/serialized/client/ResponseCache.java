@@ -0,0 +1,126 @@
+package io.serialized.client;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.commons.lang3.Validate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of parsed GET responses carrying an {@code ETag} or {@code Last-Modified} header.
+ * <p>
+ * Cached responses are revalidated with a conditional request. On {@code 304 Not Modified} the already parsed
+ * response object is returned instead of downloading and parsing the body again. Note that callers will then share
+ * the same response object, which must not be modified.
+ */
+public class ResponseCache {
+
+  public static final ResponseCache NONE = new ResponseCache();
+
+  private static final String ETAG = "ETag";
+  private static final String LAST_MODIFIED = "Last-Modified";
+
+  private final boolean enabled;
+  private final Map<Object, Entry> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private ResponseCache() {
+    this.enabled = false;
+    this.entries = null;
+  }
+
+  /**
+   * @param maxEntries Maximum number of responses kept, evicting the least recently used.
+   */
+  public ResponseCache(int maxEntries) {
+    Validate.isTrue(maxEntries > 0, "'maxEntries' must be positive");
+    this.enabled = true;
+    this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  synchronized Entry get(Object key) {
+    return entries.get(key);
+  }
+
+  /**
+   * Caches the parsed response if it carries a validator, otherwise removes any stale entry.
+   */
+  synchronized void put(Object key, Response response, Object value) {
+    String etag = response.header(ETAG);
+    String lastModified = response.header(LAST_MODIFIED);
+    if (etag == null && lastModified == null) {
+      entries.remove(key);
+    } else {
+      entries.put(key, new Entry(etag, lastModified, value));
+    }
+  }
+
+  public synchronized int size() {
+    return entries == null ? 0 : entries.size();
+  }
+
+  /**
+   * @return Number of responses served from the cache after being revalidated.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return Number of cached responses found to be modified when revalidated.
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * A parsed response together with its validators.
+   */
+  class Entry {
+
+    private final String etag;
+    private final String lastModified;
+    private final Object value;
+
+    private Entry(String etag, String lastModified, Object value) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.value = value;
+    }
+
+    Request.Builder conditional(Request.Builder request) {
+      if (etag != null) {
+        request.header("If-None-Match", etag);
+      }
+      if (lastModified != null) {
+        request.header("If-Modified-Since", lastModified);
+      }
+      return request;
+    }
+
+    /**
+     * @return The cached response if not modified, otherwise null.
+     */
+    Object valueIfNotModified(Response response) {
+      if (response.code() == 304) {
+        hits.increment();
+        return value;
+      }
+      misses.increment();
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,56 @@
+package io.serialized.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiting the number of retries relative to the number of requests.
+ * <p>
+ * Every first attempt deposits a fraction of a token and every retry withdraws a whole token, so that
+ * retries can never amount to more than the given ratio of the traffic once the initial tokens are spent.
+ * This keeps a brownout from turning into a retry storm.
+ */
+public class RetryBudget {
+
+  private static final long TOKEN = 1000;
+
+  private final long maxTokens;
+  private final long depositPerRequest;
+  private final AtomicLong tokens;
+
+  /**
+   * @param maxTokens  Maximum (and initial) number of retries that can be made in a burst.
+   * @param retryRatio Ratio of retries to requests allowed over time, e.g. 0.1 for 10%.
+   */
+  public RetryBudget(int maxTokens, double retryRatio) {
+    this.maxTokens = maxTokens * TOKEN;
+    this.depositPerRequest = (long) (retryRatio * TOKEN);
+    this.tokens = new AtomicLong(this.maxTokens);
+  }
+
+  void deposit() {
+    long current;
+    while ((current = tokens.get()) < maxTokens) {
+      if (tokens.compareAndSet(current, Math.min(maxTokens, current + depositPerRequest))) {
+        return;
+      }
+    }
+  }
+
+  boolean tryWithdraw() {
+    long current;
+    while ((current = tokens.get()) >= TOKEN) {
+      if (tokens.compareAndSet(current, current - TOKEN)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return Number of retries currently available.
+   */
+  public double availableRetries() {
+    return (double) tokens.get() / TOKEN;
+  }
+
+}
@@ -0,0 +1,183 @@
+package io.serialized.client;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+
+/**
+ * Transport level retry policy for idempotent calls failing with an I/O error, a 5xx or a 429 response.
+ * <p>
+ * Retries are delayed using exponential backoff with decorrelated jitter, honor any {@code Retry-After}
+ * header returned by the API and are limited by a {@link RetryBudget} shared by all calls.
+ */
+public class RetryPolicy {
+
+  public static final RetryPolicy NONE = new RetryPolicy.Builder().withMaxRetries(0).build();
+
+  private static final String RETRY_AFTER = "Retry-After";
+
+  private final int maxRetries;
+  private final long baseDelayMs;
+  private final long maxDelayMs;
+  private final Set<String> methods;
+  private final RetryBudget retryBudget;
+
+  private RetryPolicy(Builder builder) {
+    this.maxRetries = builder.maxRetries;
+    this.baseDelayMs = builder.baseDelay.toMillis();
+    this.maxDelayMs = builder.maxDelay.toMillis();
+    this.methods = builder.methods;
+    this.retryBudget = builder.retryBudget;
+  }
+
+  public int maxRetries() {
+    return maxRetries;
+  }
+
+  public RetryBudget retryBudget() {
+    return retryBudget;
+  }
+
+  Retries retries(Request request) {
+    return new Retries(maxRetries > 0 && methods.contains(request.method()));
+  }
+
+  /**
+   * Retry state for a single logical call.
+   */
+  class Retries {
+
+    private final boolean retryable;
+    private int attempt;
+    private long previousDelayMs;
+
+    private Retries(boolean retryable) {
+      this.retryable = retryable;
+      if (maxRetries > 0) {
+        retryBudget.deposit();
+      }
+    }
+
+    /**
+     * @return Zero for the first attempt, then the number of the current retry.
+     */
+    int attempt() {
+      return attempt;
+    }
+
+    /**
+     * @return Milliseconds to wait before retrying after an I/O failure, or -1 if the call should not be retried.
+     */
+    long delayAfterFailure() {
+      return nextDelay(0);
+    }
+
+    /**
+     * @return Milliseconds to wait before retrying the given response, or -1 if it should be handled as is.
+     */
+    long delayAfterResponse(Response response) {
+      int code = response.code();
+      if (code < 500 && code != 429) {
+        return -1;
+      }
+      long retryAfterMs = retryAfterMs(response.header(RETRY_AFTER));
+      if (retryAfterMs > maxDelayMs) {
+        return -1;
+      }
+      return nextDelay(retryAfterMs);
+    }
+
+    private long nextDelay(long minDelayMs) {
+      if (!retryable || attempt >= maxRetries || !retryBudget.tryWithdraw()) {
+        return -1;
+      }
+      // Decorrelated jitter: random between the base delay and three times the previous delay
+      long upperBound = Math.max(baseDelayMs, previousDelayMs * 3);
+      long delay = Math.min(maxDelayMs, baseDelayMs + ThreadLocalRandom.current().nextLong(upperBound - baseDelayMs + 1));
+      previousDelayMs = Math.max(delay, minDelayMs);
+      attempt++;
+      return previousDelayMs;
+    }
+  }
+
+  static long retryAfterMs(String retryAfter) {
+    if (retryAfter == null) {
+      return 0;
+    }
+    try {
+      return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+    } catch (NumberFormatException e) {
+      try {
+        return Math.max(0, Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(retryAfter.trim(), RFC_1123_DATE_TIME)).toMillis());
+      } catch (DateTimeParseException pe) {
+        return 0;
+      }
+    }
+  }
+
+  public static class Builder {
+
+    private int maxRetries = 3;
+    private Duration baseDelay = Duration.ofMillis(50);
+    private Duration maxDelay = Duration.ofSeconds(5);
+    private Set<String> methods = new HashSet<>(Arrays.asList("GET", "HEAD", "PUT"));
+    private RetryBudget retryBudget = new RetryBudget(10, 0.1);
+
+    public Builder withMaxRetries(int maxRetries) {
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    /**
+     * The minimum delay before a retry. Default is 50ms.
+     */
+    public Builder withBaseDelay(Duration baseDelay) {
+      this.baseDelay = baseDelay;
+      return this;
+    }
+
+    /**
+     * The maximum delay before a retry. Calls asked to retry later than this using {@code Retry-After} are not retried.
+     * Default is 5s.
+     */
+    public Builder withMaxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+      return this;
+    }
+
+    /**
+     * HTTP methods safe to retry. Default is GET, HEAD and PUT.
+     */
+    public Builder withMethods(String... methods) {
+      this.methods = new HashSet<>(Arrays.asList(methods));
+      return this;
+    }
+
+    /**
+     * Budget shared by all calls using this policy. Default allows bursts of 10 retries and 10% retries over time.
+     */
+    public Builder withRetryBudget(RetryBudget retryBudget) {
+      this.retryBudget = retryBudget;
+      return this;
+    }
+
+    public RetryPolicy build() {
+      Validate.isTrue(maxRetries >= 0, "'maxRetries' cannot be negative");
+      Validate.isTrue(!baseDelay.isNegative(), "'baseDelay' cannot be negative");
+      Validate.isTrue(maxDelay.compareTo(baseDelay) >= 0, "'maxDelay' must be greater than 'baseDelay'");
+      Validate.notNull(retryBudget, "'retryBudget' must be set");
+      return new RetryPolicy(this);
+    }
+  }
+
+}
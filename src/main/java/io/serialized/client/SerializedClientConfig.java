@@ -1,14 +1,29 @@
 package io.serialized.client;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.serialized.client.metrics.SerializedMetrics;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import org.apache.commons.lang3.Validate;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
 import static java.time.Duration.ofSeconds;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.toList;
 
 public class SerializedClientConfig {
 
@@ -16,23 +31,150 @@ public class SerializedClientConfig {
   public static final String HTTPS_API_SERIALIZED_IO = "https://api.serialized.io/";
 
   private final OkHttpClient.Builder httpClientBuilder;
-  private final HttpUrl apiRoot;
+  private final OkHttpClient httpClient;
+  private final OkHttpClient longPollHttpClient;
+  private final ObjectMapper objectMapper;
+  private final SerializedMetrics metrics;
+  private final RetryPolicy retryPolicy;
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final CircuitBreaker circuitBreaker;
+  private final HedgingPolicy hedgingPolicy;
+  private final boolean coalesceReads;
+  private final ResponseCache responseCache;
+  private final int compressionThreshold;
+  private final List<HttpUrl> apiRoots;
 
-  private SerializedClientConfig(OkHttpClient.Builder httpClientBuilder, HttpUrl apiRoot) {
-    this.httpClientBuilder = httpClientBuilder;
-    this.apiRoot = apiRoot;
+  private SerializedClientConfig(Builder builder, List<HttpUrl> apiRoots) {
+    this.httpClientBuilder = builder.httpClientBuilder;
+    OkHttpClient httpClient = withCallTimings(httpClientBuilder.build());
+    OkHttpClient longPollHttpClient = longPollHttpClient(httpClient, builder.longPollConfigurer);
+    if (apiRoots.size() > 1) {
+      EndpointRouter router = new EndpointRouter(apiRoots);
+      httpClient = httpClient.newBuilder().addInterceptor(router.interceptor(true)).build();
+      longPollHttpClient = longPollHttpClient.newBuilder().addInterceptor(router.interceptor(false)).build();
+    }
+    this.httpClient = httpClient;
+    this.longPollHttpClient = longPollHttpClient;
+    this.objectMapper = builder.objectMapper;
+    this.metrics = builder.metrics;
+    this.retryPolicy = builder.retryPolicy;
+    this.concurrencyLimiter = builder.concurrencyLimiter;
+    this.circuitBreaker = builder.circuitBreaker;
+    this.hedgingPolicy = builder.hedgingPolicy;
+    this.coalesceReads = builder.coalesceReads;
+    this.responseCache = builder.responseCache;
+    this.compressionThreshold = builder.compressionThreshold;
+    this.apiRoots = apiRoots;
+  }
+
+  private static OkHttpClient withCallTimings(OkHttpClient httpClient) {
+    return httpClient.newBuilder()
+        .eventListenerFactory(CallTimings.eventListenerFactory(httpClient.eventListenerFactory()))
+        .build();
+  }
+
+  private static OkHttpClient longPollHttpClient(OkHttpClient httpClient, Consumer<OkHttpClient.Builder> configurer) {
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(256);
+    dispatcher.setMaxRequestsPerHost(256);
+    OkHttpClient.Builder builder = httpClient.newBuilder()
+        .dispatcher(dispatcher)
+        .connectionPool(new ConnectionPool(32, 5, MINUTES))
+        .readTimeout(ofSeconds(75));
+    configurer.accept(builder);
+    return builder.build();
   }
 
   public static Builder serializedConfig() {
     return new Builder();
   }
 
+  /**
+   * Creates a new, separate HTTP client from this configuration.
+   *
+   * @see #httpClient()
+   */
   public OkHttpClient newHttpClient() {
     return httpClientBuilder.build();
   }
 
+  /**
+   * The HTTP client shared by all clients created from this configuration.
+   * <p>
+   * Sharing a single instance means a single connection pool, dispatcher and TLS context,
+   * allowing connections to be reused across all aggregate types and APIs.
+   * <p>
+   * Any configured {@link okhttp3.EventListener} is wrapped to also record connection-level timings
+   * reported through {@link #metrics()}.
+   */
+  public OkHttpClient httpClient() {
+    return httpClient;
+  }
+
+  /**
+   * The HTTP client used for long-polling feeds.
+   * <p>
+   * It is derived from {@link #httpClient()} but has its own dispatcher, connection pool and read timeout,
+   * so that connections parked on long polls neither starve nor churn against other API calls.
+   */
+  public OkHttpClient longPollHttpClient() {
+    return longPollHttpClient;
+  }
+
+  /**
+   * The object mapper shared by all clients created from this configuration.
+   * <p>
+   * Clients customizing their object mapper will work on a copy of this instance.
+   */
+  public ObjectMapper objectMapper() {
+    return objectMapper;
+  }
+
+  public SerializedMetrics metrics() {
+    return metrics;
+  }
+
+  public RetryPolicy retryPolicy() {
+    return retryPolicy;
+  }
+
+  public ConcurrencyLimiter concurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  public CircuitBreaker circuitBreaker() {
+    return circuitBreaker;
+  }
+
+  public HedgingPolicy hedgingPolicy() {
+    return hedgingPolicy;
+  }
+
+  public boolean coalesceReads() {
+    return coalesceReads;
+  }
+
+  public ResponseCache responseCache() {
+    return responseCache;
+  }
+
+  /**
+   * @return Size in bytes above which request bodies are gzipped, or -1 if compression is disabled.
+   */
+  public int compressionThreshold() {
+    return compressionThreshold;
+  }
+
+  /**
+   * The root all requests are built against. With several roots, calls are routed among them by
+   * {@link #httpClient()}.
+   */
   public HttpUrl apiRoot() {
-    return apiRoot;
+    return apiRoots.get(0);
+  }
+
+  public List<HttpUrl> apiRoots() {
+    return apiRoots;
   }
 
   public static class Builder {
@@ -41,12 +183,41 @@ public class SerializedClientConfig {
         .connectTimeout(ofSeconds(10))
         .readTimeout(ofSeconds(60));
 
-    private URI rootApiUrl = URI.create(HTTPS_API_SERIALIZED_IO);
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .disable(FAIL_ON_UNKNOWN_PROPERTIES)
+        .disable(FAIL_ON_EMPTY_BEANS)
+        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+        .setSerializationInclusion(NON_NULL);
+
+    private List<URI> rootApiUrls = singletonList(URI.create(HTTPS_API_SERIALIZED_IO));
     private String accessKey;
     private String secretAccessKey;
+    private SerializedMetrics metrics = SerializedMetrics.NONE;
+    private RetryPolicy retryPolicy = RetryPolicy.NONE;
+    private ConcurrencyLimiter concurrencyLimiter = ConcurrencyLimiter.NONE;
+    private CircuitBreaker circuitBreaker = CircuitBreaker.NONE;
+    private HedgingPolicy hedgingPolicy = HedgingPolicy.NONE;
+    private boolean coalesceReads;
+    private ResponseCache responseCache = ResponseCache.NONE;
+    private Consumer<OkHttpClient.Builder> longPollConfigurer = builder -> {
+    };
+    private HttpVersion httpVersion;
+    private int maxConcurrentRequests;
+    private int compressionThreshold = -1;
 
     public Builder rootApiUrl(String rootApiUrl) {
-      this.rootApiUrl = URI.create(rootApiUrl);
+      this.rootApiUrls = singletonList(URI.create(rootApiUrl));
+      return this;
+    }
+
+    /**
+     * Several equivalent roots, e.g. regional gateways. Each call is routed to the endpoint with the lowest
+     * observed latency, and calls fail over to another endpoint when one cannot be reached or starts failing.
+     * <p>
+     * Long polls are routed as well, but don't count towards the latency.
+     */
+    public Builder rootApiUrls(String... rootApiUrls) {
+      this.rootApiUrls = Arrays.stream(rootApiUrls).map(URI::create).collect(toList());
       return this;
     }
 
@@ -68,18 +239,140 @@ public class SerializedClientConfig {
       return this;
     }
 
+    /**
+     * Selects the HTTP protocol version. By default HTTP/2 is negotiated over TLS with fallback to HTTP/1.1.
+     */
+    public Builder httpVersion(HttpVersion httpVersion) {
+      this.httpVersion = httpVersion;
+      return this;
+    }
+
+    /**
+     * Maximum number of concurrent asynchronous calls to the API, set as the limits of the dispatcher of the HTTP
+     * client. Default is 5. Blocking calls, hedged or not, are not limited.
+     */
+    public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
+    /**
+     * Gzips request bodies larger than the given number of bytes, e.g. bulk saves of many events.
+     * Compression is streamed together with serialization. Disabled by default, or when set to -1.
+     */
+    public Builder compressRequestsAbove(int thresholdBytes) {
+      this.compressionThreshold = thresholdBytes;
+      return this;
+    }
+
+    /**
+     * Allows customization of the HTTP client used for long-polling feeds, e.g. its dispatcher limits,
+     * connection pool or read timeout. Applied on top of the customizations of the regular HTTP client.
+     */
+    public Builder configureLongPollHttpClient(Consumer<OkHttpClient.Builder> consumer) {
+      this.longPollConfigurer = this.longPollConfigurer.andThen(consumer);
+      return this;
+    }
+
+    /**
+     * Allows customization of the object mapper shared by all clients.
+     */
+    public Builder configureObjectMapper(Consumer<ObjectMapper> consumer) {
+      consumer.accept(objectMapper);
+      return this;
+    }
+
+    /**
+     * Installs a listener notified after every API call made by clients created from this configuration.
+     *
+     * @see io.serialized.client.metrics.HistogramMetrics
+     */
+    public Builder metrics(SerializedMetrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
+
+    /**
+     * Enables transport level retries of idempotent calls. Disabled by default.
+     */
+    public Builder retryPolicy(RetryPolicy retryPolicy) {
+      this.retryPolicy = retryPolicy;
+      return this;
+    }
+
+    /**
+     * Adaptively limits the number of concurrent calls made by all clients created from this configuration.
+     * Disabled by default.
+     */
+    public Builder concurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+      this.concurrencyLimiter = concurrencyLimiter;
+      return this;
+    }
+
+    /**
+     * Rejects calls to endpoint families that are failing or slow. Disabled by default.
+     */
+    public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+      this.circuitBreaker = circuitBreaker;
+      return this;
+    }
+
+    /**
+     * Hedges slow GET calls with a second identical call. Disabled by default.
+     */
+    public Builder hedgingPolicy(HedgingPolicy hedgingPolicy) {
+      this.hedgingPolicy = hedgingPolicy;
+      return this;
+    }
+
+    /**
+     * Lets concurrent identical GET calls (same URL, tenant and response type) made through the same client share a
+     * single HTTP call and its parsed result. Disabled by default.
+     * <p>
+     * Note that the callers will share the same response object, which must then not be modified.
+     */
+    public Builder coalesceReads(boolean coalesceReads) {
+      this.coalesceReads = coalesceReads;
+      return this;
+    }
+
+    /**
+     * Caches parsed GET responses and revalidates them using conditional requests. Disabled by default.
+     */
+    public Builder responseCache(ResponseCache responseCache) {
+      this.responseCache = responseCache;
+      return this;
+    }
+
     public SerializedClientConfig build() {
-      Validate.notNull(rootApiUrl, "'rootApiUrl' must be set");
+      Validate.notEmpty(rootApiUrls, "'rootApiUrl' must be set");
       Validate.notEmpty(accessKey, "'accessKey' must be set");
       Validate.notEmpty(secretAccessKey, "'secretAccessKey' must be set");
+      Validate.notNull(metrics, "'metrics' must not be null");
+      Validate.notNull(retryPolicy, "'retryPolicy' must not be null");
+      Validate.notNull(concurrencyLimiter, "'concurrencyLimiter' must not be null");
+      Validate.notNull(circuitBreaker, "'circuitBreaker' must not be null");
+      Validate.notNull(hedgingPolicy, "'hedgingPolicy' must not be null");
+      Validate.notNull(responseCache, "'responseCache' must not be null");
+      Validate.isTrue(compressionThreshold >= -1, "'compressionThreshold' must be at least 0, or -1 to disable compression");
 
-      HttpUrl apiRoot = HttpUrl.get(rootApiUrl);
+      List<HttpUrl> apiRoots = rootApiUrls.stream().map(HttpUrl::get).collect(toList());
+      if (httpVersion != null) {
+        Validate.isTrue(httpVersion != HttpVersion.H2C_PRIOR_KNOWLEDGE || apiRoots.stream().noneMatch(HttpUrl::isHttps), "'H2C_PRIOR_KNOWLEDGE' requires an http 'rootApiUrl'");
+        httpClientBuilder.protocols(httpVersion.protocols());
+      }
+      if (maxConcurrentRequests > 0) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxConcurrentRequests);
+        dispatcher.setMaxRequestsPerHost(maxConcurrentRequests);
+        httpClientBuilder.dispatcher(dispatcher);
+      }
       httpClientBuilder.addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
           .addHeader("Serialized-Access-Key", accessKey)
           .addHeader("Serialized-Secret-Access-Key", secretAccessKey)
           .build()));
 
-      return new SerializedClientConfig(httpClientBuilder, apiRoot);
+      return new SerializedClientConfig(this, unmodifiableList(apiRoots));
     }
   }
 
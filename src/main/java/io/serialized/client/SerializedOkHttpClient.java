@@ -1,30 +1,138 @@
 package io.serialized.client;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.serialized.client.metrics.SerializedMetrics;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import org.apache.commons.lang3.Validate;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
 
-import static io.serialized.client.SerializedClientConfig.JSON_MEDIA_TYPE;
-import static okhttp3.RequestBody.create;
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.logging.Level.WARNING;
 
 public class SerializedOkHttpClient {
 
   public static final String SERIALIZED_TENANT_ID = "Serialized-Tenant-Id";
 
+  private static final Logger logger = Logger.getLogger(SerializedOkHttpClient.class.getName());
+
+  private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "serialized-http-scheduler");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Runs hedged blocking calls, so that they block like other blocking calls instead of queueing on the dispatcher.
+   */
+  private static final ExecutorService HEDGE_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "serialized-http-hedge");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private final OkHttpClient httpClient;
-  private final ObjectMapper objectMapper;
+  private final ObjectReader objectReader;
+  private final ObjectWriter objectWriter;
+  private final SerializedMetrics metrics;
+  private final RetryPolicy retryPolicy;
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final CircuitBreaker circuitBreaker;
+  private final HedgingPolicy hedgingPolicy;
+  private final boolean coalesceReads;
+  private final ResponseCache responseCache;
+  private final int compressionThreshold;
+  private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlightReads = new ConcurrentHashMap<>();
+
+  /**
+   * Readers and writers bound to a type, keyed by {@link Class} or {@link JavaType}, so that the root (de)serializer
+   * is looked up once per type instead of once per request.
+   */
+  private final ConcurrentMap<Object, ObjectReader> readers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
 
   public SerializedOkHttpClient(OkHttpClient httpClient, ObjectMapper objectMapper) {
+    this(httpClient, objectMapper, objectMapper.reader(),
+        SerializedMetrics.NONE, RetryPolicy.NONE, ConcurrencyLimiter.NONE,
+        CircuitBreaker.NONE, HedgingPolicy.NONE, false,
+        ResponseCache.NONE, -1);
+  }
+
+  public SerializedOkHttpClient(SerializedClientConfig config, ObjectMapper objectMapper) {
+    this(config, objectMapper, objectMapper.reader());
+  }
+
+  /**
+   * @param objectReader Reader used for all responses, allowing per-client attributes on top of a shared object mapper.
+   */
+  public SerializedOkHttpClient(SerializedClientConfig config, ObjectMapper objectMapper, ObjectReader objectReader) {
+    this(config.httpClient(), objectMapper, objectReader,
+        config.metrics(), config.retryPolicy(), config.concurrencyLimiter(),
+        config.circuitBreaker(), config.hedgingPolicy(), config.coalesceReads(),
+        config.responseCache(), config.compressionThreshold());
+  }
+
+  /**
+   * Creates a client for long-polling feeds using {@link SerializedClientConfig#longPollHttpClient()}.
+   * <p>
+   * Only metrics and retries apply to long polls. The concurrency limiter, circuit breaker, hedging and caching
+   * would all mistake a long poll waiting for new events for a slow call.
+   */
+  public static SerializedOkHttpClient longPollClient(SerializedClientConfig config, ObjectMapper objectMapper) {
+    return new SerializedOkHttpClient(config.longPollHttpClient(), objectMapper, objectMapper.reader(),
+        config.metrics(), config.retryPolicy(), ConcurrencyLimiter.NONE,
+        CircuitBreaker.NONE, HedgingPolicy.NONE, false,
+        ResponseCache.NONE, -1);
+  }
+
+  private SerializedOkHttpClient(OkHttpClient httpClient, ObjectMapper objectMapper, ObjectReader objectReader,
+                                 SerializedMetrics metrics, RetryPolicy retryPolicy, ConcurrencyLimiter concurrencyLimiter,
+                                 CircuitBreaker circuitBreaker, HedgingPolicy hedgingPolicy, boolean coalesceReads,
+                                 ResponseCache responseCache, int compressionThreshold) {
     this.httpClient = httpClient;
-    this.objectMapper = objectMapper;
+    this.objectReader = objectReader;
+    this.objectWriter = objectMapper.writer().without(AUTO_CLOSE_TARGET);
+    this.metrics = metrics;
+    this.retryPolicy = retryPolicy;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.circuitBreaker = circuitBreaker;
+    this.hedgingPolicy = hedgingPolicy;
+    this.coalesceReads = coalesceReads;
+    this.responseCache = responseCache;
+    this.compressionThreshold = compressionThreshold;
   }
 
   public void put(HttpUrl url, Object payload) {
@@ -68,27 +176,137 @@ public class SerializedOkHttpClient {
   }
 
   public <T> T get(HttpUrl url, Class<T> responseClass) {
-    return executeAndGet(getRequest(url), contents -> parseJsonAs(contents, responseClass));
+    return getAndParse(url, null, responseClass, contents -> parseJsonAs(contents, responseClass));
   }
 
   public <T> T get(HttpUrl url, Class<T> responseClass, UUID tenantId) {
-    return executeAndGet(getRequest(url).header(SERIALIZED_TENANT_ID, tenantId.toString()), contents -> parseJsonAs(contents, responseClass));
+    return getAndParse(url, tenantId, responseClass, contents -> parseJsonAs(contents, responseClass));
   }
 
   public <T> T get(HttpUrl url, JavaType type) {
-    return executeAndGet(getRequest(url), contents -> parseJsonAs(contents, type));
+    return getAndParse(url, null, type, contents -> parseJsonAs(contents, type));
   }
 
   public <T> T get(HttpUrl url, JavaType type, UUID tenantId) {
-    return executeAndGet(getRequest(url).header(SERIALIZED_TENANT_ID, tenantId.toString()), contents -> parseJsonAs(contents, type));
+    return getAndParse(url, tenantId, type, contents -> parseJsonAs(contents, type));
+  }
+
+  public CompletableFuture<Void> putAsync(HttpUrl url, Object payload) {
+    return executeAsync(putRequest(url, payload).build(), res -> null);
+  }
+
+  public CompletableFuture<Void> putAsync(HttpUrl url, Object payload, UUID tenantId) {
+    return executeAsync(putRequest(url, payload).header(SERIALIZED_TENANT_ID, tenantId.toString()).build(), res -> null);
+  }
+
+  public CompletableFuture<Void> postAsync(HttpUrl url, Object payload) {
+    return executeAsync(postRequest(url, payload).build(), res -> null);
+  }
+
+  public CompletableFuture<Void> postAsync(HttpUrl url, Object payload, UUID tenantId) {
+    return executeAsync(postRequest(url, payload).header(SERIALIZED_TENANT_ID, tenantId.toString()).build(), res -> null);
+  }
+
+  public CompletableFuture<Void> deleteAsync(HttpUrl url) {
+    return executeAsync(deleteRequest(url).build(), res -> null);
+  }
+
+  public CompletableFuture<Void> deleteAsync(HttpUrl url, UUID tenantId) {
+    return executeAsync(deleteRequest(url).header(SERIALIZED_TENANT_ID, tenantId.toString()).build(), res -> null);
+  }
+
+  public <T> CompletableFuture<T> deleteAsync(HttpUrl url, Class<T> responseClass) {
+    return executeAndGetAsync(deleteRequest(url), contents -> parseJsonAs(contents, responseClass));
+  }
+
+  public <T> CompletableFuture<T> deleteAsync(HttpUrl url, Class<T> responseClass, UUID tenantId) {
+    return executeAndGetAsync(deleteRequest(url).header(SERIALIZED_TENANT_ID, tenantId.toString()), contents -> parseJsonAs(contents, responseClass));
+  }
+
+  public <T> CompletableFuture<T> headAsync(HttpUrl url, Function<Response, T> handler) {
+    return executeAsync(headRequest(url).build(), handler);
+  }
+
+  public <T> CompletableFuture<T> headAsync(HttpUrl url, Function<Response, T> handler, UUID tenantId) {
+    return executeAsync(headRequest(url).header(SERIALIZED_TENANT_ID, tenantId.toString()).build(), handler);
+  }
+
+  public <T> CompletableFuture<T> getAsync(HttpUrl url, Class<T> responseClass) {
+    return getAndParseAsync(url, null, responseClass, contents -> parseJsonAs(contents, responseClass));
+  }
+
+  public <T> CompletableFuture<T> getAsync(HttpUrl url, Class<T> responseClass, UUID tenantId) {
+    return getAndParseAsync(url, tenantId, responseClass, contents -> parseJsonAs(contents, responseClass));
+  }
+
+  public <T> CompletableFuture<T> getAsync(HttpUrl url, JavaType type) {
+    return getAndParseAsync(url, null, type, contents -> parseJsonAs(contents, type));
+  }
+
+  public <T> CompletableFuture<T> getAsync(HttpUrl url, JavaType type, UUID tenantId) {
+    return getAndParseAsync(url, tenantId, type, contents -> parseJsonAs(contents, type));
+  }
+
+  /**
+   * Prepares for traffic by building the readers and writers of the given types and opening connections to the
+   * given URL, instead of doing so on the first requests. Failures to connect are logged and otherwise ignored.
+   *
+   * @param url         URL to send HEAD requests to, whatever the response.
+   * @param connections Number of concurrent requests made. With HTTP/2 they share a single connection.
+   * @param types       Request and response types, including types nested in them such as event data.
+   */
+  public void warmUp(HttpUrl url, int connections, Collection<? extends Class<?>> types) {
+    Validate.isTrue(connections >= 0, "'connections' cannot be negative");
+    for (Class<?> type : types) {
+      readers.computeIfAbsent(type, key -> objectReader.forType(type));
+      writers.computeIfAbsent(type, objectWriter::forType);
+    }
+    if (connections == 0) {
+      return;
+    }
+
+    // Blocking calls, as the dispatcher would limit the number of concurrent asynchronous calls per host
+    ExecutorService executor = Executors.newFixedThreadPool(connections);
+    try {
+      List<Future<?>> calls = new ArrayList<>();
+      for (int i = 0; i < connections; i++) {
+        calls.add(executor.submit(() -> {
+          httpClient.newCall(new Request.Builder().url(url).head().build()).execute().close();
+          return null;
+        }));
+      }
+      for (Future<?> call : calls) {
+        try {
+          call.get();
+        } catch (ExecutionException e) {
+          logger.log(WARNING, "Failed to open connection to " + url, e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdown();
+    }
   }
 
   private Request.Builder putRequest(HttpUrl url, Object payload) {
-    return new Request.Builder().url(url).put(create(JSON_MEDIA_TYPE, toJson(payload)));
+    return jsonRequest(url, "PUT", payload);
   }
 
   private Request.Builder postRequest(HttpUrl url, Object payload) {
-    return new Request.Builder().url(url).post(create(JSON_MEDIA_TYPE, toJson(payload)));
+    return jsonRequest(url, "POST", payload);
+  }
+
+  private Request.Builder jsonRequest(HttpUrl url, String method, Object payload) {
+    Request.Builder request = new Request.Builder().url(url);
+    if (compressionThreshold < 0) {
+      return request.method(method, new JsonRequestBody(writerFor(payload), payload));
+    }
+    JsonRequestBody body = JsonRequestBody.compressedAbove(compressionThreshold, writerFor(payload), payload);
+    if (body.contentEncoding() != null) {
+      request.header("Content-Encoding", body.contentEncoding());
+    }
+    return request.method(method, body);
   }
 
   private Request.Builder deleteRequest(HttpUrl url) {
@@ -103,20 +321,432 @@ public class SerializedOkHttpClient {
     return new Request.Builder().url(url).get();
   }
 
-  private <T> T executeAndGet(Request.Builder request, Function<String, T> contentParser) {
-    return execute(request.build(), response -> {
-      try {
-        String responseContents = response.body().string();
+  private <T> T getAndParse(HttpUrl url, UUID tenantId, Object responseType, Function<InputStream, T> contentParser) {
+    List<Object> key = Arrays.asList(url, tenantId, responseType);
+    Supplier<T> call = () -> {
+      ResponseCache.Entry cached = responseCache.isEnabled() ? responseCache.get(key) : null;
+      return execute(getRequest(url, tenantId, cached), cachingHandler(key, cached, contentParser));
+    };
+    return coalesceReads ? singleFlight(key, call) : call.get();
+  }
+
+  private <T> CompletableFuture<T> getAndParseAsync(HttpUrl url, UUID tenantId, Object responseType, Function<InputStream, T> contentParser) {
+    List<Object> key = Arrays.asList(url, tenantId, responseType);
+    Supplier<CompletableFuture<T>> call = () -> {
+      ResponseCache.Entry cached = responseCache.isEnabled() ? responseCache.get(key) : null;
+      return executeAsync(getRequest(url, tenantId, cached), cachingHandler(key, cached, contentParser));
+    };
+    return coalesceReads ? singleFlightAsync(key, call) : call.get();
+  }
+
+  private Request getRequest(HttpUrl url, UUID tenantId, ResponseCache.Entry cached) {
+    Request.Builder request = getRequest(url);
+    if (tenantId != null) {
+      request.header(SERIALIZED_TENANT_ID, tenantId.toString());
+    }
+    return cached == null ? request.build() : cached.conditional(request).build();
+  }
+
+  /**
+   * Returns the cached response if not modified, otherwise parses and caches the response.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> Function<Response, T> cachingHandler(List<Object> key, ResponseCache.Entry cached, Function<InputStream, T> contentParser) {
+    Function<Response, T> handler = contentHandler(contentParser);
+    if (!responseCache.isEnabled()) {
+      return handler;
+    }
+    return response -> {
+      Object notModified = cached == null ? null : cached.valueIfNotModified(response);
+      if (notModified != null) {
+        return (T) notModified;
+      }
+      T result = handler.apply(response);
+      responseCache.put(key, response, result);
+      return result;
+    };
+  }
+
+  /**
+   * Executes the call unless an identical call is already in flight, in which case its result is shared.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T singleFlight(List<Object> key, Supplier<T> call) {
+    CompletableFuture<Object> leader = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = inFlightReads.putIfAbsent(key, leader);
+    if (inFlight != null) {
+      return (T) join(inFlight);
+    }
+    try {
+      T result = call.get();
+      leader.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      leader.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightReads.remove(key, leader);
+    }
+  }
+
+  /**
+   * Asynchronous variant of {@link #singleFlight(List, Supplier)}. Cancelling the returned future does not cancel
+   * the shared call.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> CompletableFuture<T> singleFlightAsync(List<Object> key, Supplier<CompletableFuture<T>> call) {
+    CompletableFuture<Object> leader = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = inFlightReads.putIfAbsent(key, leader);
+    if (inFlight == null) {
+      inFlight = leader;
+      call.get().whenComplete((result, failure) -> {
+        inFlightReads.remove(key, leader);
+        if (failure == null) {
+          leader.complete(result);
+        } else {
+          leader.completeExceptionally(failure);
+        }
+      });
+    }
+    CompletableFuture<T> follower = new CompletableFuture<>();
+    inFlight.whenComplete((result, failure) -> {
+      if (failure == null) {
+        follower.complete((T) result);
+      } else {
+        follower.completeExceptionally(failure);
+      }
+    });
+    return follower;
+  }
+
+  private <T> T executeAndGet(Request.Builder request, Function<InputStream, T> contentParser) {
+    return execute(request.build(), contentHandler(contentParser));
+  }
+
+  private <T> CompletableFuture<T> executeAndGetAsync(Request.Builder request, Function<InputStream, T> contentParser) {
+    return executeAsync(request.build(), contentHandler(contentParser));
+  }
+
+  /**
+   * Parses the response body straight from the socket without buffering it into a String first.
+   */
+  private <T> Function<Response, T> contentHandler(Function<InputStream, T> contentParser) {
+    return response -> {
+      try (InputStream responseContents = response.body().byteStream()) {
         return contentParser.apply(responseContents);
       } catch (IOException e) {
         throw new ClientException(e);
       }
-    });
+    };
   }
 
   private <T> T execute(Request request, Function<Response, T> handler) {
-    try (Response res = httpClient.newCall(request).execute()) {
-      if (!res.isSuccessful()) {
+    if (hedgingPolicy.appliesTo(request)) {
+      return awaitInterruptibly(executeHedged(() -> executeOnHedgeExecutor(request, handler)));
+    }
+    return executeBlocking(request, handler, null, new AtomicReference<>());
+  }
+
+  /**
+   * @param owner       Future of the caller, cancelling the current call once done, or null if never cancelled.
+   * @param currentCall Holder of the current call, for cancelling it.
+   */
+  private <T> T executeBlocking(Request request, Function<Response, T> handler,
+                                CompletableFuture<T> owner, AtomicReference<Call> currentCall) {
+    RetryPolicy.Retries retries = retryPolicy.retries(request);
+
+    while (true) {
+      Permits permits = acquire(request, retries.attempt());
+      RequestRecorder recorder = new RequestRecorder(metrics, request, retries.attempt());
+      Call call = httpClient.newCall(recorder.request());
+      currentCall.set(call);
+      if (owner != null && owner.isDone()) {
+        call.cancel();
+      }
+      Response response;
+      try {
+        response = recorder.responseReceived(call.execute());
+      } catch (IOException e) {
+        if (call.isCanceled()) {
+          permits.ignore();
+          throw new ClientException(e);
+        }
+        permits.release(true);
+        ClientException clientException = new ClientException(e);
+        recorder.completed(clientException);
+        long delay = retries.delayAfterFailure();
+        if (delay < 0) {
+          throw clientException;
+        }
+        sleep(delay, clientException);
+        continue;
+      }
+
+      long delay = retries.delayAfterResponse(response);
+      if (delay >= 0) {
+        permits.release(true);
+        ApiException apiException = new ApiException(response.code(), response.message());
+        response.close();
+        recorder.completed(apiException);
+        sleep(delay, apiException);
+        continue;
+      }
+
+      boolean overloaded = isOverloaded(response);
+      try {
+        T result = handleResponse(response, handler);
+        recorder.completed(null);
+        return result;
+      } catch (IOException e) {
+        ClientException clientException = new ClientException(e);
+        recorder.completed(clientException);
+        throw clientException;
+      } catch (RuntimeException e) {
+        recorder.completed(e);
+        throw e;
+      } finally {
+        permits.release(overloaded);
+      }
+    }
+  }
+
+  /**
+   * Passes the circuit breaker and concurrency limiter, blocking while waiting for the limit.
+   */
+  private Permits acquire(Request request, int attempt) {
+    CircuitBreaker.Permit circuit = null;
+    try {
+      circuit = circuitBreaker.acquire(request, metrics);
+      return new Permits(circuit, concurrencyLimiter.acquire());
+    } catch (CircuitBreakerOpenException | ConcurrencyLimitExceededException e) {
+      if (circuit != null) {
+        circuit.ignore();
+      }
+      new RequestRecorder(metrics, request, attempt).completed(e);
+      throw e;
+    } catch (ClientException e) {
+      // Interrupted while waiting for the limit
+      if (circuit != null) {
+        circuit.ignore();
+      }
+      throw e;
+    }
+  }
+
+  private static boolean isOverloaded(Response response) {
+    return response.code() >= 500 || response.code() == 429;
+  }
+
+  private void sleep(long delayMs, RuntimeException cause) {
+    try {
+      Thread.sleep(delayMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw cause;
+    }
+  }
+
+  /**
+   * Enqueues the request on the OkHttp dispatcher instead of blocking the calling thread.
+   * <p>
+   * The returned future completes on a dispatcher thread and fails with the same exceptions as the
+   * blocking variant. Cancelling the future cancels the underlying call.
+   */
+  private <T> CompletableFuture<T> executeAsync(Request request, Function<Response, T> handler) {
+    return hedgingPolicy.appliesTo(request) ? executeHedged(() -> dispatch(request, handler)) : dispatch(request, handler);
+  }
+
+  /**
+   * Starts a call and, unless it has completed within the hedging delay, an identical hedge call.
+   * The first successful response is used and the other call is cancelled.
+   *
+   * @param call Starts a call, returning a future that cancels the call when cancelled.
+   */
+  private <T> CompletableFuture<T> executeHedged(Supplier<CompletableFuture<T>> call) {
+    long startNanos = System.nanoTime();
+    CompletableFuture<T> result = new CompletableFuture<>();
+    AtomicInteger pending = new AtomicInteger(1);
+
+    CompletableFuture<T> primary = call.get();
+    primary.whenComplete((value, failure) -> {
+      if (failure == null) {
+        hedgingPolicy.record(System.nanoTime() - startNanos);
+      }
+    });
+    primary.whenComplete(firstSuccessful(result, pending));
+
+    ScheduledFuture<?> hedgeTimer = SCHEDULER.schedule(() -> {
+      if (!result.isDone() && hedgingPolicy.tryHedge()) {
+        pending.incrementAndGet();
+        CompletableFuture<T> hedge = call.get();
+        hedge.whenComplete(firstSuccessful(result, pending));
+        result.whenComplete((value, failure) -> hedge.cancel(false));
+      }
+    }, hedgingPolicy.delayNanos(), NANOSECONDS);
+
+    result.whenComplete((value, failure) -> {
+      hedgeTimer.cancel(false);
+      primary.cancel(false);
+    });
+    return result;
+  }
+
+  private static <T> BiConsumer<T, Throwable> firstSuccessful(CompletableFuture<T> result, AtomicInteger pending) {
+    return (value, failure) -> {
+      if (failure == null) {
+        result.complete(value);
+      } else if (pending.decrementAndGet() == 0) {
+        result.completeExceptionally(failure);
+      }
+    };
+  }
+
+  /**
+   * Executes the blocking call on the hedge executor.
+   */
+  private <T> CompletableFuture<T> executeOnHedgeExecutor(Request request, Function<Response, T> handler) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    AtomicReference<Call> currentCall = new AtomicReference<>();
+    HEDGE_EXECUTOR.execute(() -> {
+      try {
+        future.complete(executeBlocking(request, handler, future, currentCall));
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    future.whenComplete((result, throwable) -> {
+      if (future.isCancelled()) {
+        Optional.ofNullable(currentCall.get()).ifPresent(Call::cancel);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Waits for the future, cancelling it if the calling thread is interrupted.
+   */
+  private static <T> T awaitInterruptibly(CompletableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(false);
+      Thread.currentThread().interrupt();
+      throw new ClientException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ClientException(e.getCause());
+    }
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private <T> CompletableFuture<T> dispatch(Request request, Function<Response, T> handler) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    AtomicReference<Call> currentCall = new AtomicReference<>();
+    enqueue(request, handler, retryPolicy.retries(request), future, currentCall);
+    future.whenComplete((result, throwable) -> {
+      if (future.isCancelled()) {
+        Optional.ofNullable(currentCall.get()).ifPresent(Call::cancel);
+      }
+    });
+    return future;
+  }
+
+  private <T> void enqueue(Request request, Function<Response, T> handler, RetryPolicy.Retries retries,
+                           CompletableFuture<T> future, AtomicReference<Call> currentCall) {
+    if (future.isDone()) {
+      return;
+    }
+    CircuitBreaker.Permit circuit;
+    try {
+      circuit = circuitBreaker.acquire(request, metrics);
+    } catch (CircuitBreakerOpenException e) {
+      new RequestRecorder(metrics, request, retries.attempt()).completed(e);
+      future.completeExceptionally(e);
+      return;
+    }
+    concurrencyLimiter.acquireAsync(SCHEDULER).whenComplete((permit, rejected) -> {
+      if (rejected != null) {
+        circuit.ignore();
+        new RequestRecorder(metrics, request, retries.attempt()).completed(rejected);
+        future.completeExceptionally(rejected);
+      } else if (future.isDone()) {
+        new Permits(circuit, permit).ignore();
+      } else {
+        send(request, handler, retries, future, currentCall, new Permits(circuit, permit));
+      }
+    });
+  }
+
+  private <T> void send(Request request, Function<Response, T> handler, RetryPolicy.Retries retries,
+                        CompletableFuture<T> future, AtomicReference<Call> currentCall, Permits permits) {
+    RequestRecorder recorder = new RequestRecorder(metrics, request, retries.attempt());
+    Call call = httpClient.newCall(recorder.request());
+    currentCall.set(call);
+    call.enqueue(new Callback() {
+      @Override
+      public void onFailure(Call call, IOException e) {
+        if (call.isCanceled()) {
+          permits.ignore();
+          return;
+        }
+        permits.release(true);
+        ClientException clientException = new ClientException(e);
+        recorder.completed(clientException);
+        long delay = retries.delayAfterFailure();
+        if (delay < 0) {
+          future.completeExceptionally(clientException);
+        } else {
+          SCHEDULER.schedule(() -> enqueue(request, handler, retries, future, currentCall), delay, MILLISECONDS);
+        }
+      }
+
+      @Override
+      public void onResponse(Call call, Response response) {
+        Response recorded = recorder.responseReceived(response);
+        long delay = retries.delayAfterResponse(recorded);
+        if (delay >= 0) {
+          permits.release(true);
+          ApiException apiException = new ApiException(recorded.code(), recorded.message());
+          recorded.close();
+          recorder.completed(apiException);
+          SCHEDULER.schedule(() -> enqueue(request, handler, retries, future, currentCall), delay, MILLISECONDS);
+          return;
+        }
+
+        boolean overloaded = isOverloaded(recorded);
+        try {
+          T result = handleResponse(recorded, handler);
+          recorder.completed(null);
+          future.complete(result);
+        } catch (IOException e) {
+          ClientException clientException = new ClientException(e);
+          recorder.completed(clientException);
+          future.completeExceptionally(clientException);
+        } catch (RuntimeException e) {
+          recorder.completed(e);
+          future.completeExceptionally(e);
+        } finally {
+          permits.release(overloaded);
+        }
+      }
+    });
+  }
+
+  private <T> T handleResponse(Response response, Function<Response, T> handler) throws IOException {
+    try (Response res = response) {
+      if (!res.isSuccessful() && !isNotModified(res)) {
         final String message;
         if (res.code() >= 500) {
           message = res.message();
@@ -126,32 +756,58 @@ public class SerializedOkHttpClient {
         throw new ApiException(res.code(), message);
       }
       return handler.apply(res);
-    } catch (IOException e) {
-      throw new ClientException(e);
     }
   }
 
-  private <T> T parseJsonAs(String contents, Class<T> responseClass) {
+  /**
+   * Only a conditional request revalidating a cached response expects a {@code 304 Not Modified}.
+   */
+  private static boolean isNotModified(Response response) {
+    Request request = response.request();
+    return response.code() == 304 && (request.header("If-None-Match") != null || request.header("If-Modified-Since") != null);
+  }
+
+  private <T> T parseJsonAs(InputStream contents, Class<T> responseClass) {
     try {
-      return objectMapper.readValue(contents, responseClass);
+      return readers.computeIfAbsent(responseClass, type -> objectReader.forType(responseClass)).readValue(contents);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
-  private <T> T parseJsonAs(String contents, JavaType type) {
+  private <T> T parseJsonAs(InputStream contents, JavaType type) {
     try {
-      return objectMapper.readValue(contents, type);
+      return readers.computeIfAbsent(type, key -> objectReader.forType(type)).readValue(contents);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
-  private String toJson(Object payload) {
-    try {
-      return objectMapper.writeValueAsString(payload);
-    } catch (JsonProcessingException e) {
-      throw new ClientException(e);
+  private ObjectWriter writerFor(Object payload) {
+    return writers.computeIfAbsent(payload.getClass(), objectWriter::forType);
+  }
+
+  /**
+   * Circuit breaker and concurrency limiter permits held by a single attempt.
+   */
+  private static final class Permits {
+
+    private final CircuitBreaker.Permit circuit;
+    private final ConcurrencyLimiter.Permit concurrency;
+
+    private Permits(CircuitBreaker.Permit circuit, ConcurrencyLimiter.Permit concurrency) {
+      this.circuit = circuit;
+      this.concurrency = concurrency;
+    }
+
+    void release(boolean failed) {
+      concurrency.release(failed);
+      circuit.release(failed);
+    }
+
+    void ignore() {
+      concurrency.ignore();
+      circuit.ignore();
     }
   }
 
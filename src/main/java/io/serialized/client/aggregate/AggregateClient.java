@@ -1,9 +1,9 @@
 package io.serialized.client.aggregate;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.serialized.client.ApiException;
+import io.serialized.client.ClientException;
 import io.serialized.client.ConcurrencyException;
 import io.serialized.client.InvalidRequestException;
 import io.serialized.client.SerializedClientConfig;
@@ -11,7 +11,6 @@ import io.serialized.client.SerializedOkHttpClient;
 import io.serialized.client.aggregate.cache.StateCache;
 import io.serialized.client.aggregate.cache.VersionedState;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
 import okhttp3.Response;
 import org.apache.commons.lang3.Validate;
 
@@ -22,42 +21,77 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 
-import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
-import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
-import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
 import static io.serialized.client.aggregate.AggregateRequest.MAX_EVENTS_IN_BATCH;
 import static io.serialized.client.aggregate.BulkSaveEvents.newBulkSaveEvents;
 import static io.serialized.client.aggregate.StateBuilder.stateBuilder;
 import static java.lang.String.format;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.logging.Level.INFO;
 
 public class AggregateClient<T> {
 
+  private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "serialized-aggregate-retry");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private final Logger logger = Logger.getLogger(getClass().getName());
 
   private final SerializedOkHttpClient client;
   private final HttpUrl apiRoot;
+  private final HttpUrl aggregateTypeUrl;
+  private final HttpUrl aggregateTypeEventsUrl;
   private final StateBuilder<T> stateBuilder;
+  private final List<Class> eventClasses;
   private final String aggregateType;
   private final RetryStrategy retryStrategy;
   private final int limit;
+  private final int parallelPageLoads;
 
   private AggregateClient(Builder<T> builder) {
-    this.client = new SerializedOkHttpClient(builder.httpClient, builder.objectMapper);
-    this.apiRoot = builder.apiRoot;
+    this.client = new SerializedOkHttpClient(builder.config, builder.objectMapper,
+        builder.objectMapper.reader().withAttribute(EventDeserializer.EVENT_TYPES, new HashMap<>(builder.eventTypes)));
     this.aggregateType = builder.aggregateType;
+    this.apiRoot = builder.apiRoot;
+    this.aggregateTypeUrl = builder.apiRoot.newBuilder().addPathSegment("aggregates").addPathSegment(aggregateType).build();
+    this.aggregateTypeEventsUrl = aggregateTypeUrl.newBuilder().addPathSegment("events").build();
     this.stateBuilder = builder.stateBuilder;
+    this.eventClasses = new ArrayList<>(builder.eventTypes.values());
     this.retryStrategy = builder.retryStrategy;
     this.limit = builder.limit;
+    this.parallelPageLoads = builder.parallelPageLoads;
   }
 
   public static <T> Builder<T> aggregateClient(String aggregateType, Class<T> stateClass, SerializedClientConfig config) {
     return new Builder<>(aggregateType, stateClass, config);
   }
 
+  /**
+   * Opens connections to the API and builds the (de)serializers of the registered event types, so that the first
+   * requests after startup don't have to.
+   *
+   * @param connections Number of connections to open. Note that idle connections beyond the limit of the connection
+   *                    pool (5 by default) are closed.
+   */
+  public void warmUp(int connections) {
+    List<Class<?>> types = new ArrayList<>();
+    eventClasses.forEach(types::add);
+    types.add(LoadAggregateResponse.class);
+    types.add(EventBatch.class);
+    types.add(BulkSaveEvents.class);
+    client.warmUp(apiRoot, connections, types);
+  }
+
   /**
    * Save or append events to an aggregate according to the given request
    *
@@ -82,7 +116,7 @@ public class AggregateClient<T> {
   public void save(AggregateBulkRequest request) {
 
     try {
-      HttpUrl url = getAggregateTypeUrl().addPathSegment("events").build();
+      HttpUrl url = aggregateTypeEventsUrl;
 
       BulkSaveEvents payload = request.eventBatches();
       if (request.tenantId().isPresent()) {
@@ -96,6 +130,41 @@ public class AggregateClient<T> {
     }
   }
 
+  /**
+   * Non-blocking variant of {@link #save(AggregateRequest)}.
+   *
+   * @param request the request to perform
+   * @return Future completed when the events are stored
+   */
+  public CompletableFuture<Void> saveAsync(AggregateRequest request) {
+    HttpUrl url = getAggregateUrl(request.aggregateId).addPathSegment("events").build();
+
+    if (request.tenantId().isPresent()) {
+      UUID tenantId = request.tenantId().get();
+      return handleConcurrencyExceptionAsync(client.postAsync(url, request.eventBatch(), tenantId));
+    } else {
+      return handleConcurrencyExceptionAsync(client.postAsync(url, request.eventBatch()));
+    }
+  }
+
+  /**
+   * Non-blocking variant of {@link #save(AggregateBulkRequest)}.
+   *
+   * @param request the request to perform
+   * @return Future completed when the events are stored
+   */
+  public CompletableFuture<Void> saveAsync(AggregateBulkRequest request) {
+    HttpUrl url = aggregateTypeEventsUrl;
+
+    BulkSaveEvents payload = request.eventBatches();
+    if (request.tenantId().isPresent()) {
+      UUID tenantId = request.tenantId().get();
+      return handleConcurrencyExceptionAsync(client.postAsync(url, payload, tenantId));
+    } else {
+      return handleConcurrencyExceptionAsync(client.postAsync(url, payload));
+    }
+  }
+
   /**
    * Update the aggregate.
    * <p>
@@ -141,12 +210,77 @@ public class AggregateClient<T> {
 
   }
 
+  /**
+   * Non-blocking variant of {@link #update(UUID, AggregateUpdate)}.
+   * <p>
+   * The aggregate is loaded and stored without blocking the calling thread. Note that the update function
+   * is invoked on an HTTP client thread and should not block.
+   *
+   * @param aggregateId The ID of the aggregate.
+   * @param update      Function that executes business logic and returns the resulting domain events.
+   * @return Future holding the number of events stored in batch
+   */
+  public CompletableFuture<Integer> updateAsync(UUID aggregateId, AggregateUpdate<T> update) {
+    return updateAsync(aggregateId, update, 0);
+  }
+
+  private CompletableFuture<Integer> updateAsync(UUID aggregateId, AggregateUpdate<T> update, int attempt) {
+    CompletableFuture<Integer> result = new CompletableFuture<>();
+
+    CompletableFuture<Integer> updated;
+    try {
+      updated = updateInternalAsync(aggregateId, update);
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+      return result;
+    }
+
+    updated.whenComplete((eventsStored, throwable) -> {
+      if (throwable == null) {
+        result.complete(eventsStored);
+      } else {
+        Throwable cause = unwrap(throwable);
+        if (cause instanceof ConcurrencyException && attempt < retryStrategy.getRetryCount()) {
+          RETRY_SCHEDULER.schedule(() -> {
+            try {
+              updateAsync(aggregateId, update, attempt + 1).whenComplete((retried, retryThrowable) -> {
+                if (retryThrowable == null) {
+                  result.complete(retried);
+                } else {
+                  result.completeExceptionally(unwrap(retryThrowable));
+                }
+              });
+            } catch (RuntimeException e) {
+              // Would otherwise be swallowed by the scheduler, leaving the result incomplete
+              result.completeExceptionally(e);
+            }
+          }, retryStrategy.getSleepMs(), MILLISECONDS);
+        } else {
+          result.completeExceptionally(cause);
+        }
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Updates several aggregates, storing all resulting events in a single request.
+   * <p>
+   * When using a state cache, states are cached once all events are stored. On a conflict, the cached states of
+   * all aggregates in the request are caught up with the batches stored meanwhile.
+   * <p>
+   * There is no non-blocking variant, use {@link #updateAsync(UUID, AggregateUpdate)} per aggregate instead.
+   */
   public int bulkUpdate(Set<UUID> aggregateIds, AggregateUpdate<T> update) {
 
     ConcurrencyException lastException = new ConcurrencyException(409, "Conflict");
 
     for (int i = 0; i <= retryStrategy.getRetryCount(); i++) {
       try {
+        if (update.stateCache().isPresent()) {
+          return bulkUpdateInternal(aggregateIds, update, update.stateCache().get());
+        }
         List<EventBatch> batches = new ArrayList<>();
         for (UUID aggregateId : aggregateIds) {
           updateInternal(aggregateId, update, eventBatch -> {
@@ -169,55 +303,161 @@ public class AggregateClient<T> {
     throw lastException;
   }
 
+  private int bulkUpdateInternal(Set<UUID> aggregateIds, AggregateUpdate<T> update, StateCache<T> stateCache) {
+    assertValidUpdateConfig(update);
+
+    List<EventBatch> batches = new ArrayList<>();
+    Map<UUID, VersionedState<T>> currentStates = new HashMap<>();
+    for (UUID aggregateId : aggregateIds) {
+      VersionedState<T> currentState = currentState(aggregateId, update.tenantId(), stateCache);
+      List<Event<?>> events = applyUpdate(update, currentState.state());
+      if (!events.isEmpty()) {
+        batches.add(new EventBatch(aggregateId, events, currentState.version()));
+        currentStates.put(aggregateId, currentState);
+      }
+    }
+
+    try {
+      int eventsStored = storeBulk(update.tenantId(), batches);
+      for (EventBatch batch : batches) {
+        VersionedState<T> currentState = currentStates.get(batch.aggregateId());
+        T state = stateBuilder.buildState(currentState.state(), batch.events());
+        stateCache.put(batch.aggregateId(), new VersionedState<>(state, currentState.version() + 1));
+      }
+      return eventsStored;
+    } catch (ConcurrencyException e) {
+      // Any aggregate in the request may have caused the conflict
+      currentStates.forEach((aggregateId, currentState) -> catchUp(stateCache, aggregateId, update.tenantId(), currentState));
+      throw e;
+    }
+  }
+
   private int updateInternal(UUID aggregateId, AggregateUpdate<T> update, java.util.function.Function<EventBatch, Integer> onSave) {
     assertValidUpdateConfig(update);
 
     if (update.stateCache().isPresent()) {
       StateCache<T> stateCache = update.stateCache().get();
-      Optional<VersionedState<T>> cachedState = stateCache.get(aggregateId);
-
-      final int currentVersion;
-
-      final T currentState;
-      if (cachedState.isPresent()) {
-        VersionedState<T> versionedState = cachedState.get();
-        currentVersion = versionedState.version();
-        currentState = versionedState.state();
-      } else {
-        LoadAggregateResponse aggregateResponse = loadState(aggregateId, update.tenantId());
-        currentVersion = aggregateResponse.aggregateVersion;
-        currentState = stateBuilder.buildState(aggregateResponse.events);
-      }
+      VersionedState<T> currentState = currentState(aggregateId, update.tenantId(), stateCache);
 
       try {
-        List<Event<?>> events = update.apply(currentState);
-        if (events.size() >= MAX_EVENTS_IN_BATCH) {
-          throw new InvalidRequestException(format("Cannot store more than %d events per batch", MAX_EVENTS_IN_BATCH));
-        }
-        int eventStored = onSave.apply(new EventBatch(events, currentVersion));
+        List<Event<?>> events = applyUpdate(update, currentState.state());
+        int eventStored = onSave.apply(new EventBatch(events, currentState.version()));
         if (eventStored > 0) {
-          stateCache.put(aggregateId, new VersionedState<>(stateBuilder.buildState(currentState, events), currentVersion + 1));
+          stateCache.put(aggregateId, new VersionedState<>(stateBuilder.buildState(currentState.state(), events), currentState.version() + 1));
         }
         return eventStored;
       } catch (ConcurrencyException e) {
-        logger.log(INFO, format("Concurrency exception detected - invalidating cached entry with ID [%s]", aggregateId.toString()));
-        stateCache.invalidate(aggregateId);
+        catchUp(stateCache, aggregateId, update.tenantId(), currentState);
         throw e;
       }
 
     } else {
-      LoadAggregateResponse aggregateResponse = loadState(aggregateId, update.tenantId());
+      LoadAggregateResponse aggregateResponse = loadState(aggregateId, update.tenantId(), 0);
       T state = stateBuilder.buildState(aggregateResponse.events);
       Integer expectedVersion = update.useOptimisticConcurrencyOnUpdate() ? aggregateResponse.aggregateVersion : null;
-      List<Event<?>> events = update.apply(state);
-      if (events.size() >= MAX_EVENTS_IN_BATCH) {
-        throw new InvalidRequestException(format("Cannot store more than %d events per batch", MAX_EVENTS_IN_BATCH));
-      }
+      List<Event<?>> events = applyUpdate(update, state);
       return onSave.apply(new EventBatch(events, expectedVersion));
     }
 
   }
 
+  private CompletableFuture<Integer> updateInternalAsync(UUID aggregateId, AggregateUpdate<T> update) {
+    assertValidUpdateConfig(update);
+
+    if (update.stateCache().isPresent()) {
+      StateCache<T> stateCache = update.stateCache().get();
+      Optional<VersionedState<T>> cachedState = stateCache.get(aggregateId);
+
+      CompletableFuture<VersionedState<T>> currentState = cachedState.map(CompletableFuture::completedFuture)
+          .orElseGet(() -> loadStateAsync(aggregateId, update.tenantId(), 0)
+              .thenApply(response -> new VersionedState<>(stateBuilder.buildState(response.events), response.aggregateVersion)));
+
+      return currentState.thenCompose(versionedState -> {
+        List<Event<?>> events = applyUpdate(update, versionedState.state());
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        storeBatchAsync(aggregateId, update.tenantId(), new EventBatch(events, versionedState.version()))
+            .whenComplete((eventStored, throwable) -> {
+              if (throwable == null) {
+                if (eventStored > 0) {
+                  stateCache.put(aggregateId, new VersionedState<>(stateBuilder.buildState(versionedState.state(), events), versionedState.version() + 1));
+                }
+                result.complete(eventStored);
+              } else if (unwrap(throwable) instanceof ConcurrencyException) {
+                logger.log(INFO, format("Concurrency exception detected - catching up cached entry with ID [%s]", aggregateId.toString()));
+                // Failing only once caught up, so that a retry starts from the caught up state
+                loadStateAsync(aggregateId, update.tenantId(), versionedState.version())
+                    .thenAccept(newBatches -> catchUp(stateCache, aggregateId, versionedState, newBatches))
+                    .whenComplete((caughtUp, catchUpThrowable) -> {
+                      if (catchUpThrowable != null) {
+                        logger.log(INFO, format("Failed to catch up - invalidating cached entry with ID [%s]", aggregateId.toString()));
+                        stateCache.invalidate(aggregateId);
+                      }
+                      result.completeExceptionally(unwrap(throwable));
+                    });
+              } else {
+                result.completeExceptionally(unwrap(throwable));
+              }
+            });
+        return result;
+      });
+
+    } else {
+      return loadStateAsync(aggregateId, update.tenantId(), 0).thenCompose(aggregateResponse -> {
+        T state = stateBuilder.buildState(aggregateResponse.events);
+        Integer expectedVersion = update.useOptimisticConcurrencyOnUpdate() ? aggregateResponse.aggregateVersion : null;
+        List<Event<?>> events = applyUpdate(update, state);
+        return storeBatchAsync(aggregateId, update.tenantId(), new EventBatch(events, expectedVersion));
+      });
+    }
+  }
+
+  private List<Event<?>> applyUpdate(AggregateUpdate<T> update, T state) {
+    List<Event<?>> events = update.apply(state);
+    if (events.size() >= MAX_EVENTS_IN_BATCH) {
+      throw new InvalidRequestException(format("Cannot store more than %d events per batch", MAX_EVENTS_IN_BATCH));
+    }
+    return events;
+  }
+
+  /**
+   * @return The cached state, or the state loaded from the full history if not cached.
+   */
+  private VersionedState<T> currentState(UUID aggregateId, Optional<UUID> tenantId, StateCache<T> stateCache) {
+    Optional<VersionedState<T>> cachedState = stateCache.get(aggregateId);
+    if (cachedState.isPresent()) {
+      return cachedState.get();
+    }
+    LoadAggregateResponse aggregateResponse = loadState(aggregateId, tenantId, 0);
+    return new VersionedState<>(stateBuilder.buildState(aggregateResponse.events), aggregateResponse.aggregateVersion);
+  }
+
+  /**
+   * Catches up the cached state after a conflict, or invalidates it if that fails.
+   */
+  private void catchUp(StateCache<T> stateCache, UUID aggregateId, Optional<UUID> tenantId, VersionedState<T> currentState) {
+    logger.log(INFO, format("Concurrency exception detected - catching up cached entry with ID [%s]", aggregateId.toString()));
+    try {
+      LoadAggregateResponse newBatches = loadState(aggregateId, tenantId, currentState.version());
+      catchUp(stateCache, aggregateId, currentState, newBatches);
+    } catch (RuntimeException catchUpException) {
+      logger.log(INFO, format("Failed to catch up - invalidating cached entry with ID [%s]", aggregateId.toString()));
+      stateCache.invalidate(aggregateId);
+    }
+  }
+
+  /**
+   * Applies the batches stored after the version of a cached state, instead of loading the whole history again.
+   */
+  private void catchUp(StateCache<T> stateCache, UUID aggregateId, VersionedState<T> cachedState, LoadAggregateResponse newBatches) {
+    if (newBatches.aggregateVersion < cachedState.version()) {
+      // The aggregate was deleted meanwhile
+      stateCache.invalidate(aggregateId);
+    } else {
+      T state = stateBuilder.buildState(cachedState.state(), newBatches.events);
+      stateCache.put(aggregateId, new VersionedState<>(state, newBatches.aggregateVersion));
+    }
+  }
+
   private void assertValidUpdateConfig(AggregateUpdate<T> update) {
     if (update.stateCache().isPresent() && !update.useOptimisticConcurrencyOnUpdate()) {
       throw new IllegalArgumentException("Cannot use stateCache with optimisticConcurrencyOnUpdate disabled");
@@ -239,6 +479,24 @@ public class AggregateClient<T> {
     }
   }
 
+  /**
+   * Non-blocking variant of {@link #delete(AggregateDelete)}.
+   *
+   * @param delete Request
+   * @return Future holding the confirmation for client to confirm.
+   * @see AggregateDeleteConfirmation#confirmAsync()
+   */
+  public CompletableFuture<AggregateDeleteConfirmation> deleteAsync(AggregateDelete delete) {
+    HttpUrl.Builder urlBuilder = delete.aggregateId == null ? getAggregateTypeUrl() : getAggregateUrl(delete.aggregateId);
+    if (delete.tenantId == null) {
+      return client.deleteAsync(urlBuilder.build(), Map.class)
+          .thenApply(response -> new AggregateDeleteConfirmation(client, extractDeleteToken(urlBuilder, response)));
+    } else {
+      return client.deleteAsync(urlBuilder.build(), Map.class, delete.tenantId)
+          .thenApply(response -> new AggregateDeleteConfirmation(client, extractDeleteToken(urlBuilder, response), delete.tenantId));
+    }
+  }
+
   /**
    * Check if an aggregate exists.
    *
@@ -262,6 +520,34 @@ public class AggregateClient<T> {
     }
   }
 
+  /**
+   * Non-blocking variant of {@link #exists(AggregateExists)}.
+   *
+   * @param exists Request
+   * @return Future holding true if aggregate with ID exists, false if not.
+   */
+  public CompletableFuture<Boolean> existsAsync(AggregateExists exists) {
+    HttpUrl url = getAggregateUrl(exists.aggregateId).build();
+    CompletableFuture<Integer> statusCode = exists.tenantId == null ?
+        client.headAsync(url, Response::code) :
+        client.headAsync(url, Response::code, exists.tenantId);
+
+    CompletableFuture<Boolean> result = new CompletableFuture<>();
+    statusCode.whenComplete((code, throwable) -> {
+      if (throwable == null) {
+        result.complete(code == 200);
+      } else {
+        Throwable cause = unwrap(throwable);
+        if (cause instanceof ApiException && ((ApiException) cause).statusCode() == 404) {
+          result.complete(false);
+        } else {
+          result.completeExceptionally(cause);
+        }
+      }
+    });
+    return result;
+  }
+
   private AggregateDeleteConfirmation getDeleteToken(HttpUrl.Builder urlBuilder, UUID tenantId) {
     if (tenantId == null) {
       HttpUrl deleteAggregateUrl = extractDeleteToken(urlBuilder, client.delete(urlBuilder.build(), Map.class));
@@ -276,11 +562,30 @@ public class AggregateClient<T> {
     return urlBuilder.addQueryParameter("deleteToken", deleteResponse.get("deleteToken")).build();
   }
 
-  private LoadAggregateResponse loadState(UUID aggregateId, Optional<UUID> tenantId) {
+  /**
+   * Loads the batches after the given version, page by page.
+   */
+  private LoadAggregateResponse loadState(UUID aggregateId, Optional<UUID> tenantId, int since) {
+
+    if (parallelPageLoads > 1) {
+      CompletableFuture<LoadAggregateResponse> loaded = loadStateAsync(aggregateId, tenantId, since);
+      try {
+        return loaded.get();
+      } catch (InterruptedException e) {
+        // Stops loading further pages and cancels those in flight
+        loaded.cancel(false);
+        Thread.currentThread().interrupt();
+        throw new ClientException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new ClientException(e.getCause());
+      }
+    }
 
     HttpUrl.Builder builder = getAggregateUrl(aggregateId).addQueryParameter("limit", String.valueOf(limit));
 
-    int since = 0;
     LoadAggregateResponse response = new LoadAggregateResponse();
 
     if (tenantId.isPresent()) {
@@ -301,6 +606,79 @@ public class AggregateClient<T> {
     return response;
   }
 
+  private CompletableFuture<LoadAggregateResponse> loadStateAsync(UUID aggregateId, Optional<UUID> tenantId, int since) {
+    HttpUrl.Builder builder = getAggregateUrl(aggregateId).addQueryParameter("limit", String.valueOf(limit));
+    if (parallelPageLoads > 1) {
+      CompletableFuture<LoadAggregateResponse> result = new CompletableFuture<>();
+      getPageAsync(builder.setQueryParameter("since", String.valueOf(since)).build(), tenantId).thenCompose(firstPage -> {
+        LoadAggregateResponse response = new LoadAggregateResponse();
+        response.merge(firstPage);
+        return response.hasMore ? loadPagesInParallelAsync(builder, tenantId, since + limit, response, result) : completedFuture(response);
+      }).whenComplete((response, throwable) -> {
+        if (throwable == null) {
+          result.complete(response);
+        } else {
+          result.completeExceptionally(unwrap(throwable));
+        }
+      });
+      return result;
+    }
+    return loadPageAsync(builder, tenantId, since, new LoadAggregateResponse());
+  }
+
+  /**
+   * Loads the pages up to the aggregate version revealed by the first page, with at most {@code parallelPageLoads}
+   * pages in flight, and merges them in order. Batches stored meanwhile are then loaded page by page.
+   * <p>
+   * The first page failing fails the result right away. Once the result is completed, e.g. failed or cancelled,
+   * pages in flight are cancelled and no further pages are loaded.
+   */
+  private CompletableFuture<LoadAggregateResponse> loadPagesInParallelAsync(HttpUrl.Builder builder, Optional<UUID> tenantId, int since,
+                                                                            LoadAggregateResponse response, CompletableFuture<LoadAggregateResponse> result) {
+    List<CompletableFuture<LoadAggregateResponse>> pages = new ArrayList<>();
+    int pageSince = since;
+    for (; pageSince < response.aggregateVersion; pageSince += limit) {
+      HttpUrl url = builder.setQueryParameter("since", String.valueOf(pageSince)).build();
+      // Each page waits for the page loaded parallelPageLoads pages earlier, bounding the pages in flight
+      CompletableFuture<?> previous = pages.size() < parallelPageLoads ? completedFuture(null) : pages.get(pages.size() - parallelPageLoads);
+      CompletableFuture<LoadAggregateResponse> page = previous.thenCompose(ignored -> {
+        if (result.isDone()) {
+          return result;
+        }
+        CompletableFuture<LoadAggregateResponse> loading = getPageAsync(url, tenantId);
+        result.whenComplete((loaded, throwable) -> loading.cancel(false));
+        return loading;
+      });
+      page.whenComplete((loaded, throwable) -> {
+        if (throwable != null) {
+          result.completeExceptionally(unwrap(throwable));
+        }
+      });
+      pages.add(page);
+    }
+    int nextSince = pageSince;
+
+    return CompletableFuture.allOf(pages.toArray(new CompletableFuture[0])).thenCompose(ignored -> {
+      pages.forEach(page -> response.merge(page.join()));
+      return response.hasMore ? loadPageAsync(builder, tenantId, nextSince, response) : completedFuture(response);
+    });
+  }
+
+  private CompletableFuture<LoadAggregateResponse> getPageAsync(HttpUrl url, Optional<UUID> tenantId) {
+    return tenantId.isPresent() ?
+        client.getAsync(url, LoadAggregateResponse.class, tenantId.get()) :
+        client.getAsync(url, LoadAggregateResponse.class);
+  }
+
+  private CompletableFuture<LoadAggregateResponse> loadPageAsync(HttpUrl.Builder builder, Optional<UUID> tenantId, int since, LoadAggregateResponse response) {
+    HttpUrl url = builder.setQueryParameter("since", String.valueOf(since)).build();
+
+    return getPageAsync(url, tenantId).thenCompose(loaded -> {
+      response.merge(loaded);
+      return response.hasMore ? loadPageAsync(builder, tenantId, since + limit, response) : completedFuture(response);
+    });
+  }
+
   private int storeBatch(UUID aggregateId, Optional<UUID> tenantId, EventBatch eventBatch) {
     int eventCount = eventBatch.events().size();
     if (eventCount == 0) return 0;
@@ -318,11 +696,23 @@ public class AggregateClient<T> {
     return eventCount;
   }
 
+  private CompletableFuture<Integer> storeBatchAsync(UUID aggregateId, Optional<UUID> tenantId, EventBatch eventBatch) {
+    int eventCount = eventBatch.events().size();
+    if (eventCount == 0) return completedFuture(0);
+
+    HttpUrl url = getAggregateUrl(aggregateId).addPathSegment("events").build();
+    CompletableFuture<Void> stored = tenantId.isPresent() ?
+        client.postAsync(url, eventBatch, tenantId.get()) :
+        client.postAsync(url, eventBatch);
+
+    return handleConcurrencyExceptionAsync(stored).thenApply(v -> eventCount);
+  }
+
   private int storeBulk(Optional<UUID> tenantId, List<EventBatch> batches) {
     if (batches.isEmpty()) return 0;
 
     try {
-      HttpUrl url = getAggregateTypeUrl().addPathSegment("events").build();
+      HttpUrl url = aggregateTypeEventsUrl;
       if (tenantId.isPresent()) {
         client.post(url, newBulkSaveEvents(batches), tenantId.get());
       } else {
@@ -342,8 +732,29 @@ public class AggregateClient<T> {
     }
   }
 
+  private <R> CompletableFuture<R> handleConcurrencyExceptionAsync(CompletableFuture<R> future) {
+    CompletableFuture<R> result = new CompletableFuture<>();
+    future.whenComplete((value, throwable) -> {
+      if (throwable == null) {
+        result.complete(value);
+      } else {
+        Throwable cause = unwrap(throwable);
+        if (cause instanceof ApiException && ((ApiException) cause).statusCode() == 409) {
+          result.completeExceptionally(new ConcurrencyException(409, cause.getMessage()));
+        } else {
+          result.completeExceptionally(cause);
+        }
+      }
+    });
+    return result;
+  }
+
+  private static Throwable unwrap(Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+  }
+
   private HttpUrl.Builder getAggregateTypeUrl() {
-    return apiRoot.newBuilder().addPathSegment("aggregates").addPathSegment(aggregateType);
+    return aggregateTypeUrl.newBuilder();
   }
 
   private HttpUrl.Builder getAggregateUrl(UUID aggregateId) {
@@ -352,14 +763,8 @@ public class AggregateClient<T> {
 
   public static class Builder<T> {
 
-    private final ObjectMapper objectMapper = new ObjectMapper()
-        .disable(FAIL_ON_UNKNOWN_PROPERTIES)
-        .disable(FAIL_ON_EMPTY_BEANS)
-        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
-        .setSerializationInclusion(NON_NULL);
-
+    private final SerializedClientConfig config;
     private final HttpUrl apiRoot;
-    private final OkHttpClient httpClient;
     private final StateBuilder<T> stateBuilder;
 
     private final String aggregateType;
@@ -368,11 +773,14 @@ public class AggregateClient<T> {
     private RetryStrategy retryStrategy = RetryStrategy.DEFAULT;
     private UpdateStrategy updateStrategy = UpdateStrategy.DEFAULT;
     private int limit = 1000;
+    private int parallelPageLoads = 1;
+    private ObjectMapper objectMapper;
 
     Builder(String aggregateType, Class<T> stateClass, SerializedClientConfig config) {
+      this.config = config;
       this.aggregateType = aggregateType;
       this.apiRoot = config.apiRoot();
-      this.httpClient = config.newHttpClient();
+      this.objectMapper = config.objectMapper();
       this.stateBuilder = stateBuilder(stateClass);
     }
 
@@ -412,17 +820,34 @@ public class AggregateClient<T> {
       return this;
     }
 
+    /**
+     * Loads the pages of long aggregates concurrently, once the first page has revealed the aggregate version.
+     * <p>
+     * Note that concurrent requests are also limited by the dispatcher of the HTTP client (5 per host by default).
+     *
+     * @param parallelPageLoads Maximum number of pages loaded at a time. Default is 1, loading pages one by one.
+     */
+    public Builder<T> withParallelPageLoads(int parallelPageLoads) {
+      this.parallelPageLoads = parallelPageLoads;
+      return this;
+    }
+
     /**
      * Allows object mapper customization.
+     * <p>
+     * The shared object mapper of the config is copied before being customized.
      */
     public <E> Builder<T> configureObjectMapper(Consumer<ObjectMapper> consumer) {
+      if (objectMapper == config.objectMapper()) {
+        objectMapper = objectMapper.copy();
+      }
       consumer.accept(objectMapper);
       return this;
     }
 
     public AggregateClient<T> build() {
       Validate.notNull(aggregateType, "'aggregateType' must be set");
-      objectMapper.registerModule(EventDeserializer.module(eventTypes));
+      Validate.isTrue(parallelPageLoads > 0, "'parallelPageLoads' must be positive");
       stateBuilder.setFailOnMissingHandler(updateStrategy.failOnMissingHandler());
       stateBuilder.setIgnoredEventTypes(updateStrategy.ignoredEventTypes());
       return new AggregateClient<>(this);
@@ -434,6 +859,7 @@ public class AggregateClient<T> {
     String aggregateId;
     String aggregateType;
     int aggregateVersion;
+    @JsonDeserialize(contentUsing = EventDeserializer.class)
     List<Event<?>> events;
     boolean hasMore;
 
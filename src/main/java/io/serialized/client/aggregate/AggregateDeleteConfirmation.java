@@ -4,6 +4,7 @@ import io.serialized.client.SerializedOkHttpClient;
 import okhttp3.HttpUrl;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class AggregateDeleteConfirmation {
 
@@ -32,4 +33,15 @@ public class AggregateDeleteConfirmation {
     }
   }
 
+  /**
+   * Non-blocking variant of {@link #confirm()}.
+   */
+  public CompletableFuture<Void> confirmAsync() {
+    if (tenantId == null) {
+      return client.deleteAsync(url);
+    } else {
+      return client.deleteAsync(url, tenantId);
+    }
+  }
+
 }
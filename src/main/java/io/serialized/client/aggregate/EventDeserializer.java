@@ -3,34 +3,33 @@ package io.serialized.client.aggregate;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static io.serialized.client.aggregate.Event.newEvent;
 
+/**
+ * Deserializes aggregate events into their registered event classes.
+ * <p>
+ * The registered event types are read from the {@link #EVENT_TYPES} reader attribute, which lets
+ * all aggregate clients share a single object mapper.
+ */
 class EventDeserializer extends StdDeserializer<Event<?>> {
 
-  private final Map<String, Class> eventTypes;
+  static final String EVENT_TYPES = "serialized.eventTypes";
 
-  private EventDeserializer(Map<String, Class> eventTypes) {
+  EventDeserializer() {
     super((Class) null);
-    this.eventTypes = eventTypes;
-  }
-
-  static Module module(Map<String, Class> eventTypes) {
-    SimpleModule module = new SimpleModule();
-    module.addDeserializer(Event.class, new EventDeserializer(eventTypes));
-    return module;
   }
 
   @Override
   public Event<?> deserialize(JsonParser jp, DeserializationContext context) throws IOException {
+    Map<String, Class> eventTypes = eventTypes(context);
     JsonNode node = jp.getCodec().readTree(jp);
     String eventId = node.get("eventId").asText();
     String eventType = node.get("eventType").asText();
@@ -58,4 +57,9 @@ class EventDeserializer extends StdDeserializer<Event<?>> {
 
   }
 
+  private static Map<String, Class> eventTypes(DeserializationContext context) {
+    Map<String, Class> eventTypes = (Map<String, Class>) context.getAttribute(EVENT_TYPES);
+    return eventTypes == null ? Collections.emptyMap() : eventTypes;
+  }
+
 }
@@ -0,0 +1,562 @@
+package io.serialized.client.aggregate.cache;
+
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory {@link StateCache}.
+ * <p>
+ * The cache is bounded either by its number of states or by their total weight as given by a {@link StateWeigher},
+ * and states can expire a fixed time after being written. Expired states are removed when read or evicted.
+ * <p>
+ * Eviction uses W-TinyLFU: new states enter a small LRU window, and a state leaving the window is only admitted to
+ * the main segmented LRU space if it has recently been used more often than the states it would evict, as estimated
+ * by a frequency sketch. Aggregates in frequent use therefore stay cached while, for example, a batch job touches
+ * many aggregates once.
+ * <p>
+ * The cache is split into independently locked segments by aggregate ID, each holding an equal share of the bound.
+ * Hits don't take the lock: like in Caffeine, they are recorded in a lossy buffer per segment, which is replayed on
+ * the frequency sketch and access order when it fills up or on the next write.
+ */
+public class BoundedStateCache<T> implements StateCache<T> {
+
+  /**
+   * Minimum capacity of a segment for the cache to be split into several segments.
+   */
+  private static final long MIN_SEGMENT_CAPACITY = 64;
+  private static final long MAX_WEIGHTED_SKETCH_ENTRIES = 1 << 16;
+  private static final int READ_BUFFER_SIZE = 64;
+
+  private final StateWeigher<T> weigher;
+  private final long expireAfterWriteNanos;
+  private final LongSupplier ticker;
+  private final List<Segment> segments = new ArrayList<>();
+  private final int segmentMask;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+  private BoundedStateCache(Builder<T> builder) {
+    boolean weighted = builder.weigher != null;
+    long capacity = weighted ? builder.maximumWeight : builder.maximumSize;
+    this.weigher = weighted ? builder.weigher : (aggregateId, versionedState) -> 1;
+    this.expireAfterWriteNanos = builder.expireAfterWrite == null ? -1 : builder.expireAfterWrite.toNanos();
+    this.ticker = builder.ticker;
+
+    int segmentCount = 1;
+    while (segmentCount * 2 <= builder.concurrencyLevel && capacity / (segmentCount * 2) >= MIN_SEGMENT_CAPACITY) {
+      segmentCount *= 2;
+    }
+    for (int i = 0; i < segmentCount; i++) {
+      long segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+      // With weights the number of states is unknown, so the frequency sketch is kept reasonably small
+      segments.add(new Segment(segmentCapacity, weighted ? Math.min(segmentCapacity, MAX_WEIGHTED_SKETCH_ENTRIES) : segmentCapacity));
+    }
+    this.segmentMask = segmentCount - 1;
+  }
+
+  @Override
+  public void put(UUID aggregateId, VersionedState<T> versionedState) {
+    Validate.notNull(versionedState, "'versionedState' must not be null");
+    int weight = weigher.weigh(aggregateId, versionedState);
+    Validate.isTrue(weight >= 0, "Weight cannot be negative");
+    int hash = hash(aggregateId);
+    segmentFor(hash).put(aggregateId, hash, versionedState, weight, ticker.getAsLong());
+  }
+
+  @Override
+  public Optional<VersionedState<T>> get(UUID aggregateId) {
+    int hash = hash(aggregateId);
+    VersionedState<T> versionedState = segmentFor(hash).get(aggregateId, hash, ticker.getAsLong());
+    if (versionedState == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+    hits.increment();
+    return Optional.of(versionedState);
+  }
+
+  @Override
+  public void invalidate(UUID aggregateId) {
+    segmentFor(hash(aggregateId)).invalidate(aggregateId);
+  }
+
+  public void invalidateAll() {
+    segments.forEach(Segment::clear);
+  }
+
+  /**
+   * @return The number of cached states, including expired states not yet removed.
+   */
+  public long size() {
+    long size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * @return The total weight of the cached states, which is their number unless a weigher is used.
+   */
+  public long weightedSize() {
+    long weightedSize = 0;
+    for (Segment segment : segments) {
+      weightedSize += segment.weightedSize();
+    }
+    return weightedSize;
+  }
+
+  public StateCacheStats stats() {
+    return new StateCacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+  }
+
+  private Segment segmentFor(int hash) {
+    return segments.get((hash >>> 16) & segmentMask);
+  }
+
+  private static int hash(UUID aggregateId) {
+    int h = aggregateId.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private enum Region {
+    WINDOW, PROBATION, PROTECTED
+  }
+
+  private static class Node<T> {
+
+    private final UUID key;
+    private final int hash;
+    // Read without the lock on hits
+    private volatile VersionedState<T> value;
+    private volatile long writeNanos;
+    private int weight;
+    private Region region;
+    private Node<T> previous;
+    private Node<T> next;
+
+    private Node(UUID key, int hash) {
+      this.key = key;
+      this.hash = hash;
+    }
+  }
+
+  /**
+   * Doubly linked list of nodes from least to most recently used.
+   */
+  private static class AccessOrder<T> {
+
+    private Node<T> first;
+    private Node<T> last;
+    private long weight;
+
+    void addLast(Node<T> node) {
+      node.previous = last;
+      node.next = null;
+      if (last == null) {
+        first = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+      weight += node.weight;
+    }
+
+    void remove(Node<T> node) {
+      if (node.previous == null) {
+        first = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        last = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+      weight -= node.weight;
+    }
+
+    void moveToLast(Node<T> node) {
+      if (node != last) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    void clear() {
+      first = null;
+      last = null;
+      weight = 0;
+    }
+  }
+
+  /**
+   * Bounded buffer of nodes read, written to without locking and drained under the segment lock. Reads are dropped
+   * when the buffer is full or contended, as losing a few of them only makes the access order slightly less precise.
+   */
+  private static class ReadBuffer<T> {
+
+    private final AtomicReferenceArray<Node<T>> nodes = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong writeCount = new AtomicLong();
+    private volatile long readCount;
+
+    /**
+     * @return True if the buffer is full and should be drained.
+     */
+    boolean offer(Node<T> node) {
+      long head = readCount;
+      long tail = writeCount.get();
+      if (tail - head >= READ_BUFFER_SIZE) {
+        return true;
+      }
+      if (writeCount.compareAndSet(tail, tail + 1)) {
+        nodes.lazySet(index(tail), node);
+        return tail + 1 - head >= READ_BUFFER_SIZE;
+      }
+      return false;
+    }
+
+    /**
+     * @return The next node to replay, or null if none. Only to be called holding the segment lock.
+     */
+    Node<T> poll() {
+      long head = readCount;
+      if (head == writeCount.get()) {
+        return null;
+      }
+      int index = index(head);
+      Node<T> node = nodes.get(index);
+      if (node != null) {
+        // Otherwise claimed but not yet written, so left for the next drain
+        nodes.lazySet(index, null);
+        readCount = head + 1;
+      }
+      return node;
+    }
+
+    private static int index(long count) {
+      return (int) count & (READ_BUFFER_SIZE - 1);
+    }
+  }
+
+  private class Segment {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, Node<T>> nodes = new ConcurrentHashMap<>();
+    private final ReadBuffer<T> readBuffer = new ReadBuffer<>();
+    private final AccessOrder<T> window = new AccessOrder<>();
+    private final AccessOrder<T> probation = new AccessOrder<>();
+    private final AccessOrder<T> protectedOrder = new AccessOrder<>();
+    private final FrequencySketch sketch;
+    private final long maxWeight;
+    private final long maxWindowWeight;
+    private final long maxMainWeight;
+    private final long maxProtectedWeight;
+
+    private Segment(long capacity, long expectedEntries) {
+      this.maxWeight = capacity;
+      this.maxWindowWeight = Math.max(1, capacity / 100);
+      this.maxMainWeight = Math.max(0, capacity - maxWindowWeight);
+      this.maxProtectedWeight = maxMainWeight * 8 / 10;
+      this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    VersionedState<T> get(UUID key, int hash, long now) {
+      Node<T> node = nodes.get(key);
+      if (node == null) {
+        // Misses are followed by loading the state, so there is little to gain from not locking
+        lock.lock();
+        try {
+          drainReads();
+          sketch.increment(hash);
+        } finally {
+          lock.unlock();
+        }
+        return null;
+      }
+      VersionedState<T> value = node.value;
+      if (isExpired(node, now)) {
+        expire(node, now);
+        return null;
+      }
+      if (readBuffer.offer(node) && lock.tryLock()) {
+        try {
+          drainReads();
+        } finally {
+          lock.unlock();
+        }
+      }
+      return value;
+    }
+
+    void put(UUID key, int hash, VersionedState<T> value, int weight, long now) {
+      lock.lock();
+      try {
+        drainReads();
+        sketch.increment(hash);
+        Node<T> node = nodes.get(key);
+        if (weight > maxWeight) {
+          if (node != null) {
+            remove(node);
+          }
+          evictions.increment();
+          return;
+        }
+        if (node == null) {
+          node = new Node<>(key, hash);
+          node.region = Region.WINDOW;
+        } else {
+          orderOf(node).remove(node);
+        }
+        node.writeNanos = now;
+        node.value = value;
+        node.weight = weight;
+        // Only published once complete, as hits read it without locking
+        nodes.put(key, node);
+        orderOf(node).addLast(node);
+        if (node.region == Region.PROTECTED) {
+          demoteProtected();
+        }
+        evict(now);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void invalidate(UUID key) {
+      lock.lock();
+      try {
+        drainReads();
+        Node<T> node = nodes.get(key);
+        if (node != null) {
+          remove(node);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void clear() {
+      lock.lock();
+      try {
+        drainReads();
+        nodes.clear();
+        window.clear();
+        probation.clear();
+        protectedOrder.clear();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      return nodes.size();
+    }
+
+    long weightedSize() {
+      lock.lock();
+      try {
+        return window.weight + probation.weight + protectedOrder.weight;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void expire(Node<T> node, long now) {
+      lock.lock();
+      try {
+        // Unless replaced or removed meanwhile
+        if (nodes.get(node.key) == node && isExpired(node, now)) {
+          remove(node);
+          expirations.increment();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Replays the buffered reads, skipping nodes removed since.
+     */
+    private void drainReads() {
+      Node<T> node;
+      while ((node = readBuffer.poll()) != null) {
+        sketch.increment(node.hash);
+        if (nodes.get(node.key) == node) {
+          onAccess(node);
+        }
+      }
+    }
+
+    private boolean isExpired(Node<T> node, long now) {
+      return expireAfterWriteNanos >= 0 && now - node.writeNanos >= expireAfterWriteNanos;
+    }
+
+    private AccessOrder<T> orderOf(Node<T> node) {
+      switch (node.region) {
+        case WINDOW:
+          return window;
+        case PROBATION:
+          return probation;
+        default:
+          return protectedOrder;
+      }
+    }
+
+    private void onAccess(Node<T> node) {
+      if (node.region == Region.PROBATION) {
+        probation.remove(node);
+        node.region = Region.PROTECTED;
+        protectedOrder.addLast(node);
+        demoteProtected();
+      } else {
+        orderOf(node).moveToLast(node);
+      }
+    }
+
+    private void demoteProtected() {
+      while (protectedOrder.weight > maxProtectedWeight) {
+        Node<T> node = protectedOrder.first;
+        protectedOrder.remove(node);
+        node.region = Region.PROBATION;
+        probation.addLast(node);
+      }
+    }
+
+    private void evict(long now) {
+      while (window.weight > maxWindowWeight) {
+        Node<T> candidate = window.first;
+        window.remove(candidate);
+        admit(candidate, now);
+      }
+      // States in the main space may have been replaced by heavier ones
+      while (probation.weight + protectedOrder.weight > maxMainWeight) {
+        Node<T> victim = probation.first != null ? probation.first : protectedOrder.first;
+        orderOf(victim).remove(victim);
+        discard(victim, now);
+      }
+    }
+
+    /**
+     * Moves a candidate leaving the window to the main space if it is used more often than the states it displaces.
+     */
+    private void admit(Node<T> candidate, long now) {
+      long excess = probation.weight + protectedOrder.weight + candidate.weight - maxMainWeight;
+      List<Node<T>> victims = new ArrayList<>();
+      int candidateFrequency = sketch.frequency(candidate.hash);
+      Node<T> victim = probation.first != null ? probation.first : protectedOrder.first;
+      while (excess > 0) {
+        if (victim == null) {
+          // Candidate heavier than the whole main space
+          discard(candidate, now);
+          return;
+        }
+        if (!isExpired(victim, now) && sketch.frequency(victim.hash) >= candidateFrequency) {
+          discard(candidate, now);
+          return;
+        }
+        victims.add(victim);
+        excess -= victim.weight;
+        if (victim.next != null) {
+          victim = victim.next;
+        } else {
+          victim = victim.region == Region.PROBATION ? protectedOrder.first : null;
+        }
+      }
+      for (Node<T> node : victims) {
+        orderOf(node).remove(node);
+        discard(node, now);
+      }
+      candidate.region = Region.PROBATION;
+      probation.addLast(candidate);
+    }
+
+    private void discard(Node<T> node, long now) {
+      nodes.remove(node.key);
+      if (isExpired(node, now)) {
+        expirations.increment();
+      } else {
+        evictions.increment();
+      }
+    }
+
+    private void remove(Node<T> node) {
+      orderOf(node).remove(node);
+      nodes.remove(node.key);
+    }
+  }
+
+  public static class Builder<T> {
+
+    private long maximumSize = -1;
+    private long maximumWeight = -1;
+    private StateWeigher<T> weigher;
+    private Duration expireAfterWrite;
+    private int concurrencyLevel = 16;
+    private LongSupplier ticker = System::nanoTime;
+
+    /**
+     * Maximum number of cached states.
+     */
+    public Builder<T> withMaximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Maximum total weight of the cached states, as given by the weigher.
+     */
+    public Builder<T> withMaximumWeight(long maximumWeight, StateWeigher<T> weigher) {
+      this.maximumWeight = maximumWeight;
+      this.weigher = weigher;
+      return this;
+    }
+
+    /**
+     * Time after which a cached state expires, no matter how often it is used. States don't expire by default.
+     */
+    public Builder<T> withExpireAfterWrite(Duration expireAfterWrite) {
+      this.expireAfterWrite = expireAfterWrite;
+      return this;
+    }
+
+    /**
+     * Maximum number of independently locked segments. Default is 16.
+     */
+    public Builder<T> withConcurrencyLevel(int concurrencyLevel) {
+      this.concurrencyLevel = concurrencyLevel;
+      return this;
+    }
+
+    Builder<T> withTicker(LongSupplier ticker) {
+      this.ticker = ticker;
+      return this;
+    }
+
+    public BoundedStateCache<T> build() {
+      Validate.isTrue(maximumSize >= 0 ^ maximumWeight >= 0, "Either 'maximumSize' or 'maximumWeight' must be set");
+      Validate.isTrue(maximumWeight < 0 || weigher != null, "'weigher' must be set");
+      Validate.isTrue(expireAfterWrite == null || !expireAfterWrite.isNegative(), "'expireAfterWrite' cannot be negative");
+      Validate.isTrue(concurrencyLevel > 0, "'concurrencyLevel' must be positive");
+      return new BoundedStateCache<>(this);
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+package io.serialized.client.aggregate.cache;
+
+/**
+ * Count-min sketch estimating how often keys have been used recently, using small saturating counters.
+ * <p>
+ * All counters are halved after a sample of increments proportional to the size of the sketch, so that the
+ * popularity of keys no longer used fades over time.
+ */
+class FrequencySketch {
+
+  private static final int MAX_COUNT = 15;
+  private static final int COUNTERS_PER_ENTRY = 8;
+  private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+  private final byte[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int size;
+
+  /**
+   * @param expectedEntries Number of entries the sketch should tell apart, e.g. the maximum size of the cache.
+   */
+  FrequencySketch(long expectedEntries) {
+    int entries = Integer.highestOneBit((int) Math.max(16, Math.min(expectedEntries, 1 << 24)) - 1) << 1;
+    // Several counters per entry, as counters shared by many keys would overestimate rarely used keys
+    this.table = new byte[entries * COUNTERS_PER_ENTRY];
+    this.mask = table.length - 1;
+    this.sampleSize = 10 * entries;
+  }
+
+  void increment(int hash) {
+    boolean added = false;
+    for (int seed : SEEDS) {
+      int index = indexOf(hash, seed);
+      if (table[index] < MAX_COUNT) {
+        table[index]++;
+        added = true;
+      }
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  int frequency(int hash) {
+    int frequency = MAX_COUNT;
+    for (int seed : SEEDS) {
+      frequency = Math.min(frequency, table[indexOf(hash, seed)]);
+    }
+    return frequency;
+  }
+
+  private int indexOf(int hash, int seed) {
+    int h = hash * seed;
+    h ^= h >>> 16;
+    return h & mask;
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] >>= 1;
+    }
+    size /= 2;
+  }
+
+}
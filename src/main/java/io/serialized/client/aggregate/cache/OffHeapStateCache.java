@@ -0,0 +1,333 @@
+package io.serialized.client.aggregate.cache;
+
+import org.apache.commons.lang3.Validate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link StateCache} keeping states serialized in direct memory outside of the Java heap, so that very large numbers
+ * of states can be cached without adding to garbage collection pauses. In exchange, states are encoded when put and
+ * decoded on every hit using a {@link StateCodec}.
+ * <p>
+ * The cache is split into segments by aggregate ID. Each segment appends states to its own fixed size memory
+ * region used as a circular log, and indexes them in an open addressing table of primitive arrays, so that no
+ * objects are kept on the heap per state. When the region is full the oldest states are evicted (FIFO). Replaced and
+ * invalidated states take up space until then.
+ * <p>
+ * The memory is allocated up front and released when the cache is garbage collected. Note that the JVM limits direct
+ * memory with {@code -XX:MaxDirectMemorySize}.
+ */
+public class OffHeapStateCache<T> implements StateCache<T> {
+
+  private static final int HEADER_SIZE = 24;
+  private static final int WRAP_MARKER = -1;
+
+  private final StateCodec<T> codec;
+  private final List<Segment> segments = new ArrayList<>();
+  private final int segmentMask;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private OffHeapStateCache(Builder<T> builder) {
+    this.codec = builder.codec;
+    for (int i = 0; i < builder.segments; i++) {
+      segments.add(new Segment((int) (builder.capacityBytes / builder.segments)));
+    }
+    this.segmentMask = builder.segments - 1;
+  }
+
+  @Override
+  public void put(UUID aggregateId, VersionedState<T> versionedState) {
+    Validate.notNull(versionedState, "'versionedState' must not be null");
+    byte[] bytes = codec.encode(versionedState.state());
+    segmentFor(aggregateId).put(aggregateId, versionedState.version(), bytes);
+  }
+
+  @Override
+  public Optional<VersionedState<T>> get(UUID aggregateId) {
+    Segment segment = segmentFor(aggregateId);
+    byte[] bytes;
+    int version;
+    synchronized (segment) {
+      int offset = segment.index.get(aggregateId.getMostSignificantBits(), aggregateId.getLeastSignificantBits());
+      if (offset < 0) {
+        misses.increment();
+        return Optional.empty();
+      }
+      version = segment.arena.getInt(offset + 16);
+      bytes = new byte[segment.arena.getInt(offset + 20)];
+      ByteBuffer record = segment.arena.duplicate();
+      record.position(offset + HEADER_SIZE);
+      record.get(bytes);
+    }
+    hits.increment();
+    return Optional.of(new VersionedState<>(codec.decode(bytes), version));
+  }
+
+  @Override
+  public void invalidate(UUID aggregateId) {
+    Segment segment = segmentFor(aggregateId);
+    synchronized (segment) {
+      segment.index.remove(aggregateId.getMostSignificantBits(), aggregateId.getLeastSignificantBits());
+    }
+  }
+
+  /**
+   * @return The number of cached states.
+   */
+  public long size() {
+    long size = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.index.size;
+      }
+    }
+    return size;
+  }
+
+  public StateCacheStats stats() {
+    return new StateCacheStats(hits.sum(), misses.sum(), evictions.sum(), 0);
+  }
+
+  private Segment segmentFor(UUID aggregateId) {
+    long h = aggregateId.getMostSignificantBits() ^ aggregateId.getLeastSignificantBits();
+    return segments.get((int) (h ^ (h >>> 32)) & segmentMask);
+  }
+
+  private static int align(int size) {
+    return (size + 7) & ~7;
+  }
+
+  /**
+   * Memory region holding records of a header (aggregate ID, version and length) followed by the encoded state.
+   * Live and dead records occupy the region circularly from the tail to the head.
+   */
+  private class Segment {
+
+    private final ByteBuffer arena;
+    private final int capacity;
+    private final Index index = new Index();
+    private int head;
+    private int tail;
+    private int records;
+
+    private Segment(int capacity) {
+      this.arena = ByteBuffer.allocateDirect(capacity);
+      this.capacity = capacity;
+    }
+
+    synchronized void put(UUID aggregateId, int version, byte[] bytes) {
+      long msb = aggregateId.getMostSignificantBits();
+      long lsb = aggregateId.getLeastSignificantBits();
+      long size = align(HEADER_SIZE + bytes.length);
+      if (size > capacity) {
+        index.remove(msb, lsb);
+        evictions.increment();
+        return;
+      }
+      allocate((int) size);
+
+      arena.putLong(head, msb);
+      arena.putLong(head + 8, lsb);
+      arena.putInt(head + 16, version);
+      arena.putInt(head + 20, bytes.length);
+      ByteBuffer record = arena.duplicate();
+      record.position(head + HEADER_SIZE);
+      record.put(bytes);
+
+      index.put(msb, lsb, head);
+      records++;
+      head += size;
+    }
+
+    /**
+     * Evicts the oldest records until there is room for a record of the given size at the head.
+     */
+    private void allocate(int size) {
+      while (true) {
+        if (records == 0) {
+          head = 0;
+          tail = 0;
+        }
+        if (records == 0 || head > tail) {
+          if (capacity - head >= size) {
+            return;
+          }
+          if (capacity - head >= HEADER_SIZE) {
+            arena.putInt(head + 20, WRAP_MARKER);
+          }
+          head = 0;
+        } else if (tail - head >= size) {
+          return;
+        } else {
+          evictOldest();
+        }
+      }
+    }
+
+    private void evictOldest() {
+      long msb = arena.getLong(tail);
+      long lsb = arena.getLong(tail + 8);
+      if (index.get(msb, lsb) == tail) {
+        index.remove(msb, lsb);
+        evictions.increment();
+      }
+      records--;
+      tail += align(HEADER_SIZE + arena.getInt(tail + 20));
+      if (records > 0 && (capacity - tail < HEADER_SIZE || arena.getInt(tail + 20) == WRAP_MARKER)) {
+        tail = 0;
+      }
+    }
+  }
+
+  /**
+   * Open addressing hash table with linear probing from aggregate ID to record offset.
+   */
+  private static class Index {
+
+    private static final int EMPTY = -1;
+
+    private long[] msbs = new long[16];
+    private long[] lsbs = new long[16];
+    private int[] offsets = emptyOffsets(16);
+    private int mask = 15;
+    private int size;
+
+    private static int[] emptyOffsets(int length) {
+      int[] offsets = new int[length];
+      Arrays.fill(offsets, EMPTY);
+      return offsets;
+    }
+
+    private int slotOf(long msb, long lsb) {
+      long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+      return (int) (h >>> 32) & mask;
+    }
+
+    private int find(long msb, long lsb) {
+      int slot = slotOf(msb, lsb);
+      while (offsets[slot] != EMPTY) {
+        if (msbs[slot] == msb && lsbs[slot] == lsb) {
+          return slot;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    int get(long msb, long lsb) {
+      int slot = find(msb, lsb);
+      return slot < 0 ? EMPTY : offsets[slot];
+    }
+
+    void put(long msb, long lsb, int offset) {
+      int slot = find(msb, lsb);
+      if (slot >= 0) {
+        offsets[slot] = offset;
+        return;
+      }
+      if ((size + 1) * 4L > offsets.length * 3L) {
+        resize();
+      }
+      slot = slotOf(msb, lsb);
+      while (offsets[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      msbs[slot] = msb;
+      lsbs[slot] = lsb;
+      offsets[slot] = offset;
+      size++;
+    }
+
+    void remove(long msb, long lsb) {
+      int slot = find(msb, lsb);
+      if (slot < 0) {
+        return;
+      }
+      offsets[slot] = EMPTY;
+      size--;
+      // Shift back following entries of the probe sequence, so that lookups need no tombstones
+      int next = slot;
+      while (true) {
+        next = (next + 1) & mask;
+        if (offsets[next] == EMPTY) {
+          return;
+        }
+        int home = slotOf(msbs[next], lsbs[next]);
+        boolean movable = slot <= next ? home <= slot || home > next : home <= slot && home > next;
+        if (movable) {
+          msbs[slot] = msbs[next];
+          lsbs[slot] = lsbs[next];
+          offsets[slot] = offsets[next];
+          offsets[next] = EMPTY;
+          slot = next;
+        }
+      }
+    }
+
+    private void resize() {
+      long[] oldMsbs = msbs;
+      long[] oldLsbs = lsbs;
+      int[] oldOffsets = offsets;
+      int length = oldOffsets.length * 2;
+      msbs = new long[length];
+      lsbs = new long[length];
+      offsets = emptyOffsets(length);
+      mask = length - 1;
+      size = 0;
+      for (int i = 0; i < oldOffsets.length; i++) {
+        if (oldOffsets[i] != EMPTY) {
+          put(oldMsbs[i], oldLsbs[i], oldOffsets[i]);
+        }
+      }
+    }
+  }
+
+  public static class Builder<T> {
+
+    private final StateCodec<T> codec;
+    private long capacityBytes = 64 * 1024 * 1024;
+    private int segments = 16;
+
+    /**
+     * @param codec Codec used to store states, e.g. {@link StateCodec#json}.
+     */
+    public Builder(StateCodec<T> codec) {
+      this.codec = codec;
+    }
+
+    /**
+     * Total direct memory allocated for the cache. Default is 64MB.
+     */
+    public Builder<T> withCapacityBytes(long capacityBytes) {
+      this.capacityBytes = capacityBytes;
+      return this;
+    }
+
+    /**
+     * Number of independently locked segments, which must be a power of two. Default is 16.
+     * A single state cannot be larger than a segment.
+     */
+    public Builder<T> withSegments(int segments) {
+      this.segments = segments;
+      return this;
+    }
+
+    public OffHeapStateCache<T> build() {
+      Validate.notNull(codec, "'codec' must be set");
+      Validate.isTrue(segments > 0 && Integer.bitCount(segments) == 1, "'segments' must be a power of two");
+      Validate.isTrue(capacityBytes / segments >= HEADER_SIZE, "'capacityBytes' too small");
+      Validate.isTrue(capacityBytes / segments <= Integer.MAX_VALUE - 7, "'capacityBytes' too large for the number of segments");
+      return new OffHeapStateCache<>(this);
+    }
+  }
+
+}
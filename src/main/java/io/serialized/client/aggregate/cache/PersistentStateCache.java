@@ -0,0 +1,529 @@
+package io.serialized.client.aggregate.cache;
+
+import io.serialized.client.ClientException;
+import org.apache.commons.lang3.Validate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.logging.Level.WARNING;
+
+/**
+ * {@link StateCache} persisting states to memory-mapped segment files in a directory, so that the cache is warm
+ * again after a restart instead of every aggregate being loaded from its full history.
+ * <p>
+ * States are appended to the latest segment as checksummed records, together with their aggregate ID and version.
+ * Invalidations are appended as tombstones. On startup, the in-memory index from aggregate ID to record is rebuilt
+ * by scanning the segments, stopping at the first incomplete or corrupt record of a segment, so that a crash
+ * mid-write loses at most the states being written.
+ * <p>
+ * Replaced and invalidated states are reclaimed by compaction in the background, copying the remaining live states
+ * of mostly dead segments to the latest segment. When the maximum size is reached, the oldest segment is dropped.
+ * The files of reclaimed and dropped segments are deleted right away, but as Java cannot unmap them, their disk space
+ * is only released once their mappings have been garbage collected.
+ * <p>
+ * Records are written to the page cache and thereby survive the process crashing. Use {@link #flush()} to also
+ * survive the operating system crashing. Only one cache instance may use a directory at a time. Once closed, the cache cannot be used.
+ */
+public class PersistentStateCache<T> implements StateCache<T>, Closeable {
+
+  private static final Logger logger = Logger.getLogger(PersistentStateCache.class.getName());
+
+  private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\.dat");
+  private static final int MAGIC = 0x53455231;
+  private static final int FILE_HEADER_SIZE = 8;
+  private static final int RECORD_MARKER = 0x5EC0DE01;
+  private static final int RECORD_HEADER_SIZE = 32;
+  private static final int TOMBSTONE = -1;
+  private static final double COMPACTION_THRESHOLD = 0.5;
+
+  private final Path directory;
+  private final StateCodec<T> codec;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final ScheduledExecutorService compactor;
+
+  private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+  private final Map<UUID, Long> index = new HashMap<>();
+  private Segment active;
+  private boolean closed;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private PersistentStateCache(Builder<T> builder) throws IOException {
+    this.directory = builder.directory;
+    this.codec = builder.codec;
+    this.segmentSize = (int) builder.segmentSize;
+    this.maxSegments = (int) Math.max(2, builder.maxSize / builder.segmentSize);
+
+    Files.createDirectories(directory);
+    recover();
+
+    if (builder.compactionInterval.isZero()) {
+      this.compactor = null;
+    } else {
+      this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "serialized-state-cache-compaction");
+        thread.setDaemon(true);
+        return thread;
+      });
+      long intervalMillis = builder.compactionInterval.toMillis();
+      compactor.scheduleWithFixedDelay(() -> {
+        try {
+          compact();
+        } catch (RuntimeException e) {
+          logger.log(WARNING, "Failed to compact state cache in " + directory, e);
+        }
+      }, intervalMillis, intervalMillis, MILLISECONDS);
+    }
+  }
+
+  @Override
+  public void put(UUID aggregateId, VersionedState<T> versionedState) {
+    Validate.notNull(versionedState, "'versionedState' must not be null");
+    byte[] bytes = codec.encode(versionedState.state());
+    synchronized (this) {
+      checkOpen();
+      if (RECORD_HEADER_SIZE + bytes.length > segmentSize - FILE_HEADER_SIZE) {
+        invalidate(aggregateId);
+        evictions.increment();
+        return;
+      }
+      append(aggregateId, versionedState.version(), bytes);
+    }
+  }
+
+  @Override
+  public Optional<VersionedState<T>> get(UUID aggregateId) {
+    byte[] bytes;
+    int version;
+    synchronized (this) {
+      checkOpen();
+      Long location = index.get(aggregateId);
+      if (location == null) {
+        misses.increment();
+        return Optional.empty();
+      }
+      Segment segment = segments.get(segmentIdOf(location));
+      int offset = offsetOf(location);
+      version = segment.buffer.getInt(offset + 24);
+      bytes = segment.read(offset);
+    }
+    hits.increment();
+    return Optional.of(new VersionedState<>(codec.decode(bytes), version));
+  }
+
+  @Override
+  public synchronized void invalidate(UUID aggregateId) {
+    checkOpen();
+    if (index.containsKey(aggregateId)) {
+      append(aggregateId, 0, null);
+    }
+  }
+
+  /**
+   * @return The number of cached states.
+   */
+  public synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * @return The number of segment files.
+   */
+  public synchronized int segmentCount() {
+    return segments.size();
+  }
+
+  public StateCacheStats stats() {
+    return new StateCacheStats(hits.sum(), misses.sum(), evictions.sum(), 0);
+  }
+
+  /**
+   * Writes all changes through to disk, including those in segments rolled over since the last flush.
+   */
+  public synchronized void flush() {
+    checkOpen();
+    for (Segment segment : segments.values()) {
+      if (segment.dirty) {
+        segment.buffer.force();
+        segment.dirty = false;
+      }
+    }
+  }
+
+  /**
+   * @return The number of segments with changes not yet written through to disk.
+   */
+  synchronized int unflushedSegmentCount() {
+    return (int) segments.values().stream().filter(segment -> segment.dirty).count();
+  }
+
+  /**
+   * Reclaims the space of replaced and invalidated states in segments that are mostly dead.
+   * This is done periodically in the background, unless disabled.
+   */
+  public void compact() {
+    List<Segment> candidates = new ArrayList<>();
+    synchronized (this) {
+      for (Segment segment : segments.values()) {
+        if (segment != active && segment.liveBytes < (segment.writePosition - FILE_HEADER_SIZE) * COMPACTION_THRESHOLD) {
+          candidates.add(segment);
+        }
+      }
+    }
+    for (Segment segment : candidates) {
+      compact(segment);
+    }
+  }
+
+  private void compact(Segment segment) {
+    int offset = FILE_HEADER_SIZE;
+    while (offset < segment.writePosition) {
+      // Locking per record, so that compaction doesn't stall other calls
+      synchronized (this) {
+        if (segment.closed) {
+          // Dropped as the oldest segment meanwhile
+          return;
+        }
+        UUID aggregateId = new UUID(segment.buffer.getLong(offset + 8), segment.buffer.getLong(offset + 16));
+        int length = segment.buffer.getInt(offset + 4);
+        Long location = index.get(aggregateId);
+        if (length != TOMBSTONE && location != null && location == locationOf(segment.id, offset)) {
+          append(aggregateId, segment.buffer.getInt(offset + 24), segment.read(offset));
+        } else if (length == TOMBSTONE && location == null && segment != segments.firstEntry().getValue()) {
+          // Still needed to hide states in older segments
+          append(aggregateId, 0, null);
+        }
+        offset += recordSize(length);
+      }
+    }
+    synchronized (this) {
+      active.buffer.force();
+      remove(segment);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (compactor != null) {
+      compactor.shutdownNow();
+    }
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      for (Segment segment : segments.values()) {
+        segment.buffer.force();
+        segment.close();
+      }
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Cache is closed");
+    }
+  }
+
+  private void append(UUID aggregateId, int version, byte[] bytes) {
+    int length = bytes == null ? TOMBSTONE : bytes.length;
+    if (active.writePosition + recordSize(length) > active.capacity) {
+      rollOver();
+    }
+    int offset = active.write(aggregateId, version, bytes);
+    Long previous = length == TOMBSTONE ? index.remove(aggregateId) : index.put(aggregateId, locationOf(active.id, offset));
+    if (previous != null) {
+      Segment segment = segments.get(segmentIdOf(previous));
+      segment.liveBytes -= recordSize(segment.buffer.getInt(offsetOf(previous) + 4));
+    }
+    if (length != TOMBSTONE) {
+      active.liveBytes += recordSize(length);
+    }
+  }
+
+  private void rollOver() {
+    while (segments.size() >= maxSegments) {
+      Segment oldest = segments.firstEntry().getValue();
+      int offset = FILE_HEADER_SIZE;
+      while (offset < oldest.writePosition) {
+        UUID aggregateId = new UUID(oldest.buffer.getLong(offset + 8), oldest.buffer.getLong(offset + 16));
+        Long location = index.get(aggregateId);
+        if (location != null && location == locationOf(oldest.id, offset)) {
+          index.remove(aggregateId);
+          evictions.increment();
+        }
+        offset += recordSize(oldest.buffer.getInt(offset + 4));
+      }
+      remove(oldest);
+    }
+    try {
+      active = createSegment(active.id + 1);
+    } catch (IOException e) {
+      throw new ClientException(e);
+    }
+  }
+
+  private void remove(Segment segment) {
+    segments.remove(segment.id);
+    segment.close();
+    try {
+      Files.deleteIfExists(segment.file);
+    } catch (IOException e) {
+      logger.log(WARNING, "Failed to delete " + segment.file, e);
+    }
+  }
+
+  private Segment createSegment(int id) throws IOException {
+    Segment segment = new Segment(id, directory.resolve("segment-" + id + ".dat"), segmentSize);
+    segment.buffer.putInt(0, MAGIC);
+    segment.buffer.putInt(4, segmentSize);
+    segment.writePosition = FILE_HEADER_SIZE;
+    segments.put(id, segment);
+    return segment;
+  }
+
+  /**
+   * Rebuilds the index from the segment files, oldest first.
+   */
+  private void recover() throws IOException {
+    TreeMap<Integer, Path> files = new TreeMap<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path file : stream) {
+        Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+          files.put(Integer.parseInt(matcher.group(1)), file);
+        }
+      }
+    }
+
+    for (Map.Entry<Integer, Path> file : files.entrySet()) {
+      long fileSize = Files.size(file.getValue());
+      if (fileSize < FILE_HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+        logger.warning("Ignoring invalid state cache segment " + file.getValue());
+        continue;
+      }
+      Segment segment = new Segment(file.getKey(), file.getValue(), (int) fileSize);
+      if (segment.buffer.getInt(0) != MAGIC) {
+        logger.warning("Ignoring invalid state cache segment " + file.getValue());
+        segment.close();
+        continue;
+      }
+      segments.put(segment.id, segment);
+      active = segment;
+      int offset = FILE_HEADER_SIZE;
+      while (segment.isValidRecord(offset)) {
+        int length = segment.buffer.getInt(offset + 4);
+        UUID aggregateId = new UUID(segment.buffer.getLong(offset + 8), segment.buffer.getLong(offset + 16));
+        Long previous = length == TOMBSTONE ? index.remove(aggregateId) : index.put(aggregateId, locationOf(segment.id, offset));
+        if (previous != null) {
+          Segment previousSegment = segments.get(segmentIdOf(previous));
+          previousSegment.liveBytes -= recordSize(previousSegment.buffer.getInt(offsetOf(previous) + 4));
+        }
+        if (length != TOMBSTONE) {
+          segment.liveBytes += recordSize(length);
+        }
+        offset += recordSize(length);
+      }
+      segment.writePosition = offset;
+    }
+
+    if (active == null || active.capacity != segmentSize) {
+      active = createSegment(active == null ? 0 : active.id + 1);
+    } else {
+      // Clear anything left after the last valid record, so that it cannot be mistaken for a record later on
+      for (int i = active.writePosition; i < active.capacity; i++) {
+        active.buffer.put(i, (byte) 0);
+      }
+    }
+  }
+
+  private static int recordSize(int length) {
+    return RECORD_HEADER_SIZE + (length == TOMBSTONE ? 0 : length);
+  }
+
+  private static long locationOf(int segmentId, int offset) {
+    return (long) segmentId << 32 | offset;
+  }
+
+  private static int segmentIdOf(long location) {
+    return (int) (location >>> 32);
+  }
+
+  private static int offsetOf(long location) {
+    return (int) location;
+  }
+
+  /**
+   * Memory-mapped segment file of a header (magic number and size) followed by records of a header (marker, length,
+   * aggregate ID, version and checksum) and the encoded state.
+   */
+  private static class Segment {
+
+    private final int id;
+    private final Path file;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private long liveBytes;
+    private boolean dirty;
+    private boolean closed;
+
+    private Segment(int id, Path file, int capacity) throws IOException {
+      this.id = id;
+      this.file = file;
+      this.capacity = capacity;
+      this.channel = FileChannel.open(file, CREATE, READ, WRITE);
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    int write(UUID aggregateId, int version, byte[] bytes) {
+      int offset = writePosition;
+      buffer.putInt(offset + 4, bytes == null ? TOMBSTONE : bytes.length);
+      buffer.putLong(offset + 8, aggregateId.getMostSignificantBits());
+      buffer.putLong(offset + 16, aggregateId.getLeastSignificantBits());
+      buffer.putInt(offset + 24, version);
+      if (bytes != null) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(offset + RECORD_HEADER_SIZE);
+        payload.put(bytes);
+      }
+      buffer.putInt(offset + 28, checksum(offset));
+      buffer.putInt(offset, RECORD_MARKER);
+      writePosition += recordSize(bytes == null ? TOMBSTONE : bytes.length);
+      dirty = true;
+      return offset;
+    }
+
+    byte[] read(int offset) {
+      byte[] bytes = new byte[buffer.getInt(offset + 4)];
+      ByteBuffer payload = buffer.duplicate();
+      payload.position(offset + RECORD_HEADER_SIZE);
+      payload.get(bytes);
+      return bytes;
+    }
+
+    boolean isValidRecord(int offset) {
+      if (offset + RECORD_HEADER_SIZE > capacity || buffer.getInt(offset) != RECORD_MARKER) {
+        return false;
+      }
+      int length = buffer.getInt(offset + 4);
+      if (length < TOMBSTONE || offset + recordSize(length) > capacity) {
+        return false;
+      }
+      return buffer.getInt(offset + 28) == checksum(offset);
+    }
+
+    private int checksum(int offset) {
+      int length = buffer.getInt(offset + 4);
+      CRC32 crc = new CRC32();
+      ByteBuffer header = buffer.duplicate();
+      header.position(offset + 4).limit(offset + 28);
+      crc.update(header);
+      if (length > 0) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(offset + RECORD_HEADER_SIZE).limit(offset + RECORD_HEADER_SIZE + length);
+        crc.update(payload);
+      }
+      return (int) crc.getValue();
+    }
+
+    void close() {
+      closed = true;
+      try {
+        channel.close();
+      } catch (IOException e) {
+        logger.log(WARNING, "Failed to close " + file, e);
+      }
+    }
+  }
+
+  public static class Builder<T> {
+
+    private final Path directory;
+    private final StateCodec<T> codec;
+    private long segmentSize = 64 * 1024 * 1024;
+    private long maxSize = 1024 * 1024 * 1024;
+    private Duration compactionInterval = Duration.ofMinutes(1);
+
+    /**
+     * @param directory Directory of the segment files, created if missing.
+     * @param codec     Codec used to store states, e.g. {@link StateCodec#json}.
+     */
+    public Builder(Path directory, StateCodec<T> codec) {
+      this.directory = directory;
+      this.codec = codec;
+    }
+
+    /**
+     * Size of each segment file. A single state cannot be larger than a segment. Default is 64MB.
+     */
+    public Builder<T> withSegmentSize(long segmentSize) {
+      this.segmentSize = segmentSize;
+      return this;
+    }
+
+    /**
+     * Maximum total size of the segment files, dropping the oldest segment when reached. Default is 1GB.
+     */
+    public Builder<T> withMaxSize(long maxSize) {
+      this.maxSize = maxSize;
+      return this;
+    }
+
+    /**
+     * Interval between background compactions. Zero disables background compaction. Default is 1 minute.
+     */
+    public Builder<T> withCompactionInterval(Duration compactionInterval) {
+      this.compactionInterval = compactionInterval;
+      return this;
+    }
+
+    /**
+     * Opens the cache, recovering the states persisted in the directory.
+     */
+    public PersistentStateCache<T> build() {
+      Validate.notNull(directory, "'directory' must be set");
+      Validate.notNull(codec, "'codec' must be set");
+      Validate.inclusiveBetween(1024, Integer.MAX_VALUE, segmentSize, "'segmentSize' must be between 1KB and 2GB");
+      Validate.isTrue(maxSize >= segmentSize, "'maxSize' cannot be smaller than 'segmentSize'");
+      Validate.notNull(compactionInterval, "'compactionInterval' must be set");
+      Validate.isTrue(!compactionInterval.isNegative(), "'compactionInterval' cannot be negative");
+      try {
+        return new PersistentStateCache<>(this);
+      } catch (IOException e) {
+        throw new ClientException(e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+package io.serialized.client.aggregate.cache;
+
+/**
+ * Statistics of a cache since it was created.
+ */
+public class StateCacheStats {
+
+  private final long hitCount;
+  private final long missCount;
+  private final long evictionCount;
+  private final long expirationCount;
+
+  public StateCacheStats(long hitCount, long missCount, long evictionCount, long expirationCount) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.expirationCount = expirationCount;
+  }
+
+  public long hitCount() {
+    return hitCount;
+  }
+
+  public long missCount() {
+    return missCount;
+  }
+
+  /**
+   * @return Ratio of lookups finding a cached state, or 1 if there have been no lookups.
+   */
+  public double hitRate() {
+    long requestCount = hitCount + missCount;
+    return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+  }
+
+  /**
+   * @return Number of states removed to stay within the size or weight bound.
+   */
+  public long evictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * @return Number of states removed because they had expired.
+   */
+  public long expirationCount() {
+    return expirationCount;
+  }
+
+  @Override
+  public String toString() {
+    return "StateCacheStats{" +
+        "hitCount=" + hitCount +
+        ", missCount=" + missCount +
+        ", evictionCount=" + evictionCount +
+        ", expirationCount=" + expirationCount +
+        '}';
+  }
+
+}
@@ -0,0 +1,46 @@
+package io.serialized.client.aggregate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.serialized.client.ClientException;
+
+import java.io.IOException;
+
+/**
+ * Converts states to and from bytes, for caches keeping states serialized.
+ */
+public interface StateCodec<T> {
+
+  byte[] encode(T state);
+
+  T decode(byte[] bytes);
+
+  /**
+   * @return A codec storing states as JSON, e.g. using {@link io.serialized.client.SerializedClientConfig#objectMapper()}.
+   */
+  static <T> StateCodec<T> json(ObjectMapper objectMapper, Class<T> stateClass) {
+    ObjectWriter writer = objectMapper.writerFor(stateClass);
+    ObjectReader reader = objectMapper.readerFor(stateClass);
+    return new StateCodec<T>() {
+      @Override
+      public byte[] encode(T state) {
+        try {
+          return writer.writeValueAsBytes(state);
+        } catch (IOException e) {
+          throw new ClientException(e);
+        }
+      }
+
+      @Override
+      public T decode(byte[] bytes) {
+        try {
+          return reader.readValue(bytes);
+        } catch (IOException e) {
+          throw new ClientException(e);
+        }
+      }
+    };
+  }
+
+}
@@ -0,0 +1,16 @@
+package io.serialized.client.aggregate.cache;
+
+import java.util.UUID;
+
+/**
+ * Calculates the weight of a cached state, e.g. an estimate of its size in bytes or its number of line items.
+ */
+@FunctionalInterface
+public interface StateWeigher<T> {
+
+  /**
+   * @return The weight of the state, which cannot be negative.
+   */
+  int weigh(UUID aggregateId, VersionedState<T> versionedState);
+
+}
@@ -1,12 +1,9 @@
 package io.serialized.client.feed;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.serialized.client.SerializedClientConfig;
 import io.serialized.client.SerializedOkHttpClient;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
 import okhttp3.Response;
 import org.apache.commons.lang3.Validate;
 
@@ -15,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -24,9 +22,6 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Logger;
 
-import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
-import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
-import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
 import static io.serialized.client.feed.FeedRequests.getSequenceNumber;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -39,12 +34,14 @@ public class FeedClient implements Closeable {
   private final Logger logger = Logger.getLogger(getClass().getName());
 
   private final SerializedOkHttpClient client;
-  private final HttpUrl apiRoot;
+  private final SerializedOkHttpClient longPollClient;
+  private final HttpUrl feedsUrl;
   private final Map<UUID, ExecutorService> executors = new ConcurrentHashMap<>();
 
   private FeedClient(Builder builder) {
-    this.client = new SerializedOkHttpClient(builder.httpClient, builder.objectMapper);
-    this.apiRoot = builder.apiRoot;
+    this.client = new SerializedOkHttpClient(builder.config, builder.objectMapper);
+    this.longPollClient = SerializedOkHttpClient.longPollClient(builder.config, builder.objectMapper);
+    this.feedsUrl = builder.apiRoot.newBuilder().addPathSegment("feeds").build();
   }
 
   public static Builder feedClient(SerializedClientConfig config) {
@@ -71,25 +68,74 @@ public class FeedClient implements Closeable {
    * @param since Sequence number to start feeding from. Zero (0) starts from the beginning.
    */
   public FeedResponse execute(GetFeedRequest request, long since) {
-    HttpUrl.Builder urlBuilder = url(request.feedName);
-    Optional.ofNullable(request.limit).ifPresent(limit -> urlBuilder.addQueryParameter("limit", String.valueOf(limit)));
-    Optional.ofNullable(request.partitionCount).ifPresent(pCount -> urlBuilder.addQueryParameter("partitionCount", String.valueOf(pCount)));
-    Optional.ofNullable(request.partitionNumber).ifPresent(pNumber -> urlBuilder.addQueryParameter("partitionNumber", String.valueOf(pNumber)));
-    Optional.ofNullable(request.waitTime).ifPresent(waitTime -> urlBuilder.addQueryParameter("waitTime", String.valueOf(waitTime.toMillis())));
+    return poll(request, feedUrl(request), since);
+  }
 
-    for (String type : request.types) {
-      urlBuilder.addQueryParameter("filterType", type);
+  private FeedResponse poll(GetFeedRequest request, HttpUrl feedUrl, long since) {
+    HttpUrl url = withSince(feedUrl, since);
+    SerializedOkHttpClient pollClient = clientFor(request);
+
+    if (request.tenantId().isPresent()) {
+      return pollClient.get(url, FeedResponse.class, request.tenantId);
+    } else {
+      return pollClient.get(url, FeedResponse.class);
     }
+  }
 
-    HttpUrl url = urlBuilder.addQueryParameter("since", String.valueOf(since)).build();
+  /**
+   * Non-blocking variant of {@link #execute(GetFeedRequest, long)}.
+   *
+   * @param since Sequence number to start feeding from. Zero (0) starts from the beginning.
+   */
+  public CompletableFuture<FeedResponse> executeAsync(GetFeedRequest request, long since) {
+    HttpUrl url = withSince(feedUrl(request), since);
+    SerializedOkHttpClient pollClient = clientFor(request);
 
     if (request.tenantId().isPresent()) {
-      return client.get(url, FeedResponse.class, request.tenantId);
+      return pollClient.getAsync(url, FeedResponse.class, request.tenantId);
     } else {
-      return client.get(url, FeedResponse.class);
+      return pollClient.getAsync(url, FeedResponse.class);
     }
   }
 
+  /**
+   * Long polls are sent using a separate dispatcher and connection pool.
+   *
+   * @see SerializedClientConfig#longPollHttpClient()
+   */
+  private SerializedOkHttpClient clientFor(GetFeedRequest request) {
+    return request.waitTime != null && !request.waitTime.isZero() ? longPollClient : client;
+  }
+
+  /**
+   * Builds the URL for polling the feed, except for the sequence number which changes between polls.
+   */
+  private HttpUrl feedUrl(GetFeedRequest request) {
+    HttpUrl.Builder urlBuilder = url(request.feedName);
+    if (request.limit != null) {
+      urlBuilder.addQueryParameter("limit", String.valueOf(request.limit));
+    }
+    if (request.partitionCount != null) {
+      urlBuilder.addQueryParameter("partitionCount", String.valueOf(request.partitionCount));
+    }
+    if (request.partitionNumber != null) {
+      urlBuilder.addQueryParameter("partitionNumber", String.valueOf(request.partitionNumber));
+    }
+    if (request.waitTime != null) {
+      urlBuilder.addQueryParameter("waitTime", String.valueOf(request.waitTime.toMillis()));
+    }
+
+    for (String type : request.types) {
+      urlBuilder.addQueryParameter("filterType", type);
+    }
+
+    return urlBuilder.build();
+  }
+
+  private static HttpUrl withSince(HttpUrl feedUrl, long since) {
+    return feedUrl.newBuilder().addQueryParameter("since", String.valueOf(since)).build();
+  }
+
   /**
    * Starts subscribing to the feed.
    * The default in-memory sequence number tracker will be used.
@@ -131,6 +177,7 @@ public class FeedClient implements Closeable {
       sequenceNumberTracker.updateLastConsumedSequenceNumber(sequenceNumber);
     }
 
+    HttpUrl feedUrl = feedUrl(request);
     executor.scheduleWithFixedDelay(() -> {
 
       FeedResponse response;
@@ -139,7 +186,7 @@ public class FeedClient implements Closeable {
         do {
           long sequenceNumber = sequenceNumberTracker.lastConsumedSequenceNumber();
 
-          response = execute(request, sequenceNumber);
+          response = poll(request, feedUrl, sequenceNumber);
 
           if (sequenceNumber > sequenceNumberTracker.lastConsumedSequenceNumber()) {
             return; // Tracker was reset during poll - return to poll again.
@@ -199,6 +246,7 @@ public class FeedClient implements Closeable {
       sequenceNumberTracker.updateLastConsumedSequenceNumber(sequenceNumber);
     }
 
+    HttpUrl feedUrl = feedUrl(request);
     executor.scheduleWithFixedDelay(() -> {
 
       FeedResponse response;
@@ -207,7 +255,7 @@ public class FeedClient implements Closeable {
         do {
           long sequenceNumber = sequenceNumberTracker.lastConsumedSequenceNumber();
 
-          response = execute(request, sequenceNumber);
+          response = poll(request, feedUrl, sequenceNumber);
 
           if (sequenceNumber > sequenceNumberTracker.lastConsumedSequenceNumber()) {
             return; // Tracker was reset during poll - return to poll again.
@@ -246,12 +294,21 @@ public class FeedClient implements Closeable {
    * @return Feed names and details.
    */
   public List<Feed> execute(ListFeedsRequest request) {
-    HttpUrl url = apiRoot.newBuilder().addPathSegment("feeds").build();
+    if (request.tenantId().isPresent()) {
+      return client.get(feedsUrl, FeedsResponse.class, request.tenantId).feeds();
+    } else {
+      return client.get(feedsUrl, FeedsResponse.class).feeds();
+    }
+  }
 
+  /**
+   * Non-blocking variant of {@link #execute(ListFeedsRequest)}.
+   */
+  public CompletableFuture<List<Feed>> executeAsync(ListFeedsRequest request) {
     if (request.tenantId().isPresent()) {
-      return client.get(url, FeedsResponse.class, request.tenantId).feeds();
+      return client.getAsync(feedsUrl, FeedsResponse.class, request.tenantId).thenApply(FeedsResponse::feeds);
     } else {
-      return client.get(url, FeedsResponse.class).feeds();
+      return client.getAsync(feedsUrl, FeedsResponse.class).thenApply(FeedsResponse::feeds);
     }
   }
 
@@ -273,31 +330,46 @@ public class FeedClient implements Closeable {
     }
   }
 
+  /**
+   * Non-blocking variant of {@link #execute(GetSequenceNumberRequest)}.
+   */
+  public CompletableFuture<Long> executeAsync(GetSequenceNumberRequest request) {
+    HttpUrl url = url(request.feedName).build();
+    Function<Response, Long> func = response -> Long.parseLong(requireNonNull(response.header(SEQUENCE_NUMBER_HEADER)));
+
+    if (request.tenantId().isPresent()) {
+      return client.headAsync(url, func, request.tenantId);
+    } else {
+      return client.headAsync(url, func);
+    }
+  }
+
   private HttpUrl.Builder url(String feedName) {
     Validate.notBlank(feedName, "No feed specified");
-    return apiRoot.newBuilder().addPathSegment("feeds").addPathSegment(feedName);
+    return feedsUrl.newBuilder().addPathSegment(feedName);
   }
 
   public static class Builder {
 
-    private final ObjectMapper objectMapper = new ObjectMapper()
-        .disable(FAIL_ON_UNKNOWN_PROPERTIES)
-        .disable(FAIL_ON_EMPTY_BEANS)
-        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
-        .setSerializationInclusion(NON_NULL);
-
-    private final OkHttpClient httpClient;
+    private final SerializedClientConfig config;
     private final HttpUrl apiRoot;
+    private ObjectMapper objectMapper;
 
     public Builder(SerializedClientConfig config) {
-      this.httpClient = config.newHttpClient();
+      this.config = config;
+      this.objectMapper = config.objectMapper();
       this.apiRoot = config.apiRoot();
     }
 
     /**
      * Allows object mapper customization.
+     * <p>
+     * The shared object mapper of the config is copied before being customized.
      */
     public Builder configureObjectMapper(Consumer<ObjectMapper> consumer) {
+      if (objectMapper == config.objectMapper()) {
+        objectMapper = objectMapper.copy();
+      }
       consumer.accept(objectMapper);
       return this;
     }
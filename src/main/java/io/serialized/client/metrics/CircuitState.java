@@ -0,0 +1,23 @@
+package io.serialized.client.metrics;
+
+/**
+ * State of the circuit breaker protecting an endpoint family.
+ */
+public enum CircuitState {
+
+  /**
+   * Calls are allowed.
+   */
+  CLOSED,
+
+  /**
+   * Calls are rejected without being sent to the API.
+   */
+  OPEN,
+
+  /**
+   * A limited number of probe calls are allowed to find out whether the endpoint has recovered.
+   */
+  HALF_OPEN
+
+}
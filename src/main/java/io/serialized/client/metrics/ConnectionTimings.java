@@ -0,0 +1,58 @@
+package io.serialized.client.metrics;
+
+/**
+ * Connection-level timings for a single API call, as observed by the HTTP client.
+ * <p>
+ * DNS, connect and TLS handshake durations are zero when the call reused a pooled connection.
+ */
+public class ConnectionTimings {
+
+  public static final ConnectionTimings NONE = new ConnectionTimings(0, 0, 0, 0, 0, true);
+
+  private final long dnsNanos;
+  private final long connectNanos;
+  private final long tlsHandshakeNanos;
+  private final long timeToFirstByteNanos;
+  private final long responseBodyNanos;
+  private final boolean connectionReused;
+
+  public ConnectionTimings(long dnsNanos, long connectNanos, long tlsHandshakeNanos, long timeToFirstByteNanos, long responseBodyNanos, boolean connectionReused) {
+    this.dnsNanos = dnsNanos;
+    this.connectNanos = connectNanos;
+    this.tlsHandshakeNanos = tlsHandshakeNanos;
+    this.timeToFirstByteNanos = timeToFirstByteNanos;
+    this.responseBodyNanos = responseBodyNanos;
+    this.connectionReused = connectionReused;
+  }
+
+  public long dnsNanos() {
+    return dnsNanos;
+  }
+
+  /**
+   * @return Nanoseconds spent establishing the connection, including the TLS handshake.
+   */
+  public long connectNanos() {
+    return connectNanos;
+  }
+
+  public long tlsHandshakeNanos() {
+    return tlsHandshakeNanos;
+  }
+
+  /**
+   * @return Nanoseconds from the request being written until the response headers started arriving.
+   */
+  public long timeToFirstByteNanos() {
+    return timeToFirstByteNanos;
+  }
+
+  public long responseBodyNanos() {
+    return responseBodyNanos;
+  }
+
+  public boolean connectionReused() {
+    return connectionReused;
+  }
+
+}
@@ -0,0 +1,152 @@
+package io.serialized.client.metrics;
+
+import io.serialized.client.ApiOperation;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in metrics implementation keeping lock-free latency histograms and counters per API operation.
+ */
+public class HistogramMetrics implements SerializedMetrics {
+
+  private final Map<ApiOperation, OperationStats> stats = new ConcurrentHashMap<>();
+  private final Map<String, CircuitState> circuitStates = new ConcurrentHashMap<>();
+
+  @Override
+  public void requestCompleted(RequestMetrics requestMetrics) {
+    stats.computeIfAbsent(requestMetrics.operation(), operation -> new OperationStats()).record(requestMetrics);
+  }
+
+  @Override
+  public void circuitStateChanged(String resource, CircuitState state) {
+    circuitStates.put(resource, state);
+  }
+
+  /**
+   * @return The last known circuit breaker state per endpoint family that has changed state.
+   */
+  public Map<String, CircuitState> circuitStates() {
+    return Collections.unmodifiableMap(circuitStates);
+  }
+
+  /**
+   * @return Statistics for all operations observed so far.
+   */
+  public Map<ApiOperation, OperationStats> stats() {
+    return Collections.unmodifiableMap(stats);
+  }
+
+  public OperationStats stats(ApiOperation operation) {
+    return stats.computeIfAbsent(operation, op -> new OperationStats());
+  }
+
+  public static class OperationStats {
+
+    private final Histogram latency = new Histogram();
+    private final Histogram network = new Histogram();
+    private final Histogram parse = new Histogram();
+    private final Histogram timeToFirstByte = new Histogram();
+    private final Histogram connect = new Histogram();
+    private final LongAdder newConnections = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    void record(RequestMetrics requestMetrics) {
+      latency.record(requestMetrics.totalNanos());
+      network.record(requestMetrics.networkNanos());
+      parse.record(requestMetrics.parseNanos());
+      ConnectionTimings connectionTimings = requestMetrics.connectionTimings();
+      timeToFirstByte.record(connectionTimings.timeToFirstByteNanos());
+      if (!connectionTimings.connectionReused()) {
+        newConnections.increment();
+        connect.record(connectionTimings.dnsNanos() + connectionTimings.connectNanos());
+      }
+      bytesSent.add(requestMetrics.bytesSent());
+      bytesReceived.add(requestMetrics.bytesReceived());
+      if (!requestMetrics.isSuccessful()) {
+        failures.increment();
+      }
+      if (requestMetrics.attempt() > 0) {
+        retries.increment();
+      }
+      statusCodes.computeIfAbsent(requestMetrics.statusCode(), code -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return Histogram of the total call duration in nanoseconds.
+     */
+    public Histogram latency() {
+      return latency;
+    }
+
+    /**
+     * @return Histogram of the time until response headers were received in nanoseconds.
+     */
+    public Histogram network() {
+      return network;
+    }
+
+    /**
+     * @return Histogram of the time spent reading and parsing response bodies in nanoseconds.
+     */
+    public Histogram parse() {
+      return parse;
+    }
+
+    /**
+     * @return Histogram of the time from request written until response headers started arriving in nanoseconds.
+     */
+    public Histogram timeToFirstByte() {
+      return timeToFirstByte;
+    }
+
+    /**
+     * @return Histogram of DNS lookup and connection setup (including TLS) in nanoseconds, for calls opening a new connection.
+     */
+    public Histogram connect() {
+      return connect;
+    }
+
+    /**
+     * @return Number of calls that had to open a new connection.
+     */
+    public long newConnections() {
+      return newConnections.sum();
+    }
+
+    public long bytesSent() {
+      return bytesSent.sum();
+    }
+
+    public long bytesReceived() {
+      return bytesReceived.sum();
+    }
+
+    public long failures() {
+      return failures.sum();
+    }
+
+    /**
+     * @return Number of transport level retries.
+     */
+    public long retries() {
+      return retries.sum();
+    }
+
+    /**
+     * @param statusCode HTTP status code, or zero for calls that did not receive a response.
+     */
+    public long statusCount(int statusCode) {
+      LongAdder counter = statusCodes.get(statusCode);
+      return counter == null ? 0 : counter.sum();
+    }
+
+  }
+
+}
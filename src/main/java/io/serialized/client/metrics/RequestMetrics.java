@@ -0,0 +1,187 @@
+package io.serialized.client.metrics;
+
+import io.serialized.client.ApiOperation;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measurements for a single completed API call.
+ */
+public class RequestMetrics {
+
+  private final ApiOperation operation;
+  private final String method;
+  private final UUID tenantId;
+  private final int attempt;
+  private final int statusCode;
+  private final long bytesSent;
+  private final long bytesReceived;
+  private final long networkNanos;
+  private final long parseNanos;
+  private final ConnectionTimings connectionTimings;
+  private final Throwable failure;
+
+  private RequestMetrics(Builder builder) {
+    this.operation = builder.operation;
+    this.method = builder.method;
+    this.tenantId = builder.tenantId;
+    this.attempt = builder.attempt;
+    this.statusCode = builder.statusCode;
+    this.bytesSent = builder.bytesSent;
+    this.bytesReceived = builder.bytesReceived;
+    this.networkNanos = builder.networkNanos;
+    this.parseNanos = builder.parseNanos;
+    this.connectionTimings = builder.connectionTimings;
+    this.failure = builder.failure;
+  }
+
+  public static Builder requestMetrics(ApiOperation operation, String method) {
+    return new Builder(operation, method);
+  }
+
+  public ApiOperation operation() {
+    return operation;
+  }
+
+  public String method() {
+    return method;
+  }
+
+  public Optional<UUID> tenantId() {
+    return Optional.ofNullable(tenantId);
+  }
+
+  /**
+   * @return Zero for the first attempt of a call, otherwise the number of the transport level retry.
+   */
+  public int attempt() {
+    return attempt;
+  }
+
+  /**
+   * @return The HTTP status code or zero if no response was received.
+   */
+  public int statusCode() {
+    return statusCode;
+  }
+
+  public long bytesSent() {
+    return bytesSent;
+  }
+
+  public long bytesReceived() {
+    return bytesReceived;
+  }
+
+  /**
+   * @return Nanoseconds from the start of the call until the response headers were received.
+   */
+  public long networkNanos() {
+    return networkNanos;
+  }
+
+  /**
+   * @return Nanoseconds spent reading and parsing the response body.
+   */
+  public long parseNanos() {
+    return parseNanos;
+  }
+
+  /**
+   * @return DNS, connect, TLS and time-to-first-byte timings for the call.
+   */
+  public ConnectionTimings connectionTimings() {
+    return connectionTimings;
+  }
+
+  public long totalNanos() {
+    return networkNanos + parseNanos;
+  }
+
+  public Optional<Throwable> failure() {
+    return Optional.ofNullable(failure);
+  }
+
+  public boolean isSuccessful() {
+    return failure == null;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s %s -> %d (%d ms, %d bytes sent, %d bytes received)",
+        method, operation, statusCode, NANOSECONDS.toMillis(totalNanos()), bytesSent, bytesReceived);
+  }
+
+  public static class Builder {
+
+    private final ApiOperation operation;
+    private final String method;
+    private UUID tenantId;
+    private int attempt;
+    private int statusCode;
+    private long bytesSent;
+    private long bytesReceived;
+    private long networkNanos;
+    private long parseNanos;
+    private ConnectionTimings connectionTimings = ConnectionTimings.NONE;
+    private Throwable failure;
+
+    Builder(ApiOperation operation, String method) {
+      this.operation = operation;
+      this.method = method;
+    }
+
+    public Builder withTenantId(UUID tenantId) {
+      this.tenantId = tenantId;
+      return this;
+    }
+
+    public Builder withAttempt(int attempt) {
+      this.attempt = attempt;
+      return this;
+    }
+
+    public Builder withStatusCode(int statusCode) {
+      this.statusCode = statusCode;
+      return this;
+    }
+
+    public Builder withBytesSent(long bytesSent) {
+      this.bytesSent = bytesSent;
+      return this;
+    }
+
+    public Builder withBytesReceived(long bytesReceived) {
+      this.bytesReceived = bytesReceived;
+      return this;
+    }
+
+    public Builder withNetworkNanos(long networkNanos) {
+      this.networkNanos = networkNanos;
+      return this;
+    }
+
+    public Builder withParseNanos(long parseNanos) {
+      this.parseNanos = parseNanos;
+      return this;
+    }
+
+    public Builder withConnectionTimings(ConnectionTimings connectionTimings) {
+      this.connectionTimings = connectionTimings;
+      return this;
+    }
+
+    public Builder withFailure(Throwable failure) {
+      this.failure = failure;
+      return this;
+    }
+
+    public RequestMetrics build() {
+      return new RequestMetrics(this);
+    }
+  }
+
+}
@@ -0,0 +1,26 @@
+package io.serialized.client.metrics;
+
+/**
+ * Listener notified after each API call performed by the clients.
+ * <p>
+ * Implementations are invoked on the thread completing the call and must be thread safe and non-blocking.
+ *
+ * @see HistogramMetrics
+ */
+@FunctionalInterface
+public interface SerializedMetrics {
+
+  SerializedMetrics NONE = requestMetrics -> {
+  };
+
+  void requestCompleted(RequestMetrics requestMetrics);
+
+  /**
+   * Notified when the circuit breaker for an endpoint family changes state.
+   *
+   * @param resource The endpoint family, as given by {@link io.serialized.client.ApiOperation#resource()}.
+   */
+  default void circuitStateChanged(String resource, CircuitState state) {
+  }
+
+}
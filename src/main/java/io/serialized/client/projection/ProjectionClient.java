@@ -1,7 +1,5 @@
 package io.serialized.client.projection;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.serialized.client.SerializedClientConfig;
@@ -9,7 +7,7 @@ import io.serialized.client.SerializedOkHttpClient;
 import io.serialized.client.projection.query.ProjectionQuery;
 import io.serialized.client.projection.query.ProjectionsQuery;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
+import org.apache.commons.lang3.Validate;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -18,23 +16,30 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
-import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
-import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
-import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
-
 public class ProjectionClient {
 
   private final SerializedOkHttpClient client;
   private final HttpUrl apiRoot;
+  private final HttpUrl projectionsUrl;
+  private final HttpUrl definitionsUrl;
   private final ObjectMapper objectMapper;
+  private final JavaType mapProjectionType;
+  private final ConcurrentMap<Class, JavaType> projectionTypes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class, JavaType> projectionsTypes = new ConcurrentHashMap<>();
 
   private ProjectionClient(Builder builder) {
-    this.client = new SerializedOkHttpClient(builder.httpClient, builder.objectMapper);
+    this.client = new SerializedOkHttpClient(builder.config, builder.objectMapper);
     this.apiRoot = builder.apiRoot;
+    this.projectionsUrl = apiRoot.newBuilder().addPathSegment("projections").build();
+    this.definitionsUrl = projectionsUrl.newBuilder().addPathSegment("definitions").build();
     this.objectMapper = builder.objectMapper;
+    this.mapProjectionType = objectMapper.getTypeFactory().constructParametricType(ProjectionResponse.class, Map.class);
   }
 
   public static ProjectionClient.Builder projectionClient(SerializedClientConfig config) {
@@ -46,6 +51,14 @@ public class ProjectionClient {
     client.post(url, projectionDefinition);
   }
 
+  /**
+   * Non-blocking variant of {@link #createDefinition(ProjectionDefinition)}.
+   */
+  public CompletableFuture<Void> createDefinitionAsync(ProjectionDefinition projectionDefinition) {
+    HttpUrl url = pathForDefinitions().build();
+    return client.postAsync(url, projectionDefinition);
+  }
+
   /**
    * Creates a Projection definition from a JSON String value.
    *
@@ -63,6 +76,15 @@ public class ProjectionClient {
     client.put(url, projectionDefinition);
   }
 
+  /**
+   * Non-blocking variant of {@link #createOrUpdate(ProjectionDefinition)}.
+   */
+  public CompletableFuture<Void> createOrUpdateAsync(ProjectionDefinition projectionDefinition) {
+    String projectionName = projectionDefinition.projectionName();
+    HttpUrl url = pathForDefinitions().addPathSegment(projectionName).build();
+    return client.putAsync(url, projectionDefinition);
+  }
+
   /**
    * Creates/updates a Projection definition from a JSON String value.
    *
@@ -84,11 +106,35 @@ public class ProjectionClient {
     return client.get(url, ProjectionDefinitions.class);
   }
 
+  /**
+   * Non-blocking variant of {@link #getDefinition(String)}.
+   */
+  public CompletableFuture<ProjectionDefinition> getDefinitionAsync(String projectionName) {
+    HttpUrl url = pathForDefinitions().addPathSegment(projectionName).build();
+    return client.getAsync(url, ProjectionDefinition.class);
+  }
+
+  /**
+   * Non-blocking variant of {@link #listDefinitions()}.
+   */
+  public CompletableFuture<ProjectionDefinitions> listDefinitionsAsync() {
+    HttpUrl url = pathForDefinitions().build();
+    return client.getAsync(url, ProjectionDefinitions.class);
+  }
+
   public void deleteDefinition(String projectionName) {
     HttpUrl url = pathForDefinitions().addPathSegment(projectionName).build();
     client.delete(url);
   }
 
+  /**
+   * Non-blocking variant of {@link #deleteDefinition(String)}.
+   */
+  public CompletableFuture<Void> deleteDefinitionAsync(String projectionName) {
+    HttpUrl url = pathForDefinitions().addPathSegment(projectionName).build();
+    return client.deleteAsync(url);
+  }
+
   /**
    * This call deletes all existing projections and starts a rebuild from the beginning of the event history.
    * Keep in mind that this might take a while.
@@ -102,6 +148,18 @@ public class ProjectionClient {
     }
   }
 
+  /**
+   * Non-blocking variant of {@link #delete(ProjectionRequest)}.
+   */
+  public CompletableFuture<Void> deleteAsync(ProjectionRequest request) {
+    HttpUrl url = pathForProjections(request.projectionName, request.projectionType).build();
+    if (request.tenantId().isPresent()) {
+      return client.deleteAsync(url, request.tenantId);
+    } else {
+      return client.deleteAsync(url);
+    }
+  }
+
   public long count(ProjectionRequest request) {
     HttpUrl.Builder builder = pathForProjections(request.projectionName, request.projectionType).addPathSegment("_count");
     Optional.ofNullable(request.reference).ifPresent(reference -> builder.addQueryParameter("reference", request.reference));
@@ -115,19 +173,63 @@ public class ProjectionClient {
     }
   }
 
+  /**
+   * Non-blocking variant of {@link #count(ProjectionRequest)}.
+   */
+  public CompletableFuture<Long> countAsync(ProjectionRequest request) {
+    HttpUrl.Builder builder = pathForProjections(request.projectionName, request.projectionType).addPathSegment("_count");
+    Optional.ofNullable(request.reference).ifPresent(reference -> builder.addQueryParameter("reference", request.reference));
+
+    HttpUrl url = builder.build();
+
+    CompletableFuture<Map> response = request.tenantId().isPresent() ?
+        client.getAsync(url, Map.class, request.tenantId) :
+        client.getAsync(url, Map.class);
+
+    return response.thenApply(count -> ((Number) count.get("count")).longValue());
+  }
+
   public <T> ProjectionResponse<T> query(ProjectionQuery query) {
-    JavaType javaType = query.responseClass()
-        .map(dataClass -> objectMapper.getTypeFactory().constructParametricType(ProjectionResponse.class, dataClass))
-        .orElse(objectMapper.getTypeFactory().constructParametricType(ProjectionResponse.class, Map.class));
+    JavaType javaType = projectionType(query.responseClass());
 
     HttpUrl url = query.constructUrl(apiRoot);
     return getProjections(query, url, javaType);
   }
 
+  /**
+   * Non-blocking variant of {@link #query(ProjectionQuery)}.
+   */
+  public <T> CompletableFuture<ProjectionResponse<T>> queryAsync(ProjectionQuery query) {
+    JavaType javaType = projectionType(query.responseClass());
+
+    HttpUrl url = query.constructUrl(apiRoot);
+    if (query.tenantId().isPresent()) {
+      return client.getAsync(url, javaType, query.tenantId().get());
+    } else {
+      return client.getAsync(url, javaType);
+    }
+  }
+
+  /**
+   * Non-blocking variant of {@link #query(ProjectionsQuery)}.
+   * <p>
+   * Note that auto pagination is not supported for non-blocking queries.
+   */
+  public <T> CompletableFuture<ProjectionsResponse<T>> queryAsync(ProjectionsQuery query) {
+    Validate.isTrue(!query.isAutoPagination(), "Auto pagination is not supported for non-blocking queries");
+
+    JavaType javaType = projectionsType(query.responseClass());
+
+    HttpUrl url = query.constructUrl(apiRoot);
+    if (query.tenantId().isPresent()) {
+      return client.getAsync(url, javaType, query.tenantId().get());
+    } else {
+      return client.getAsync(url, javaType);
+    }
+  }
+
   public <T> ProjectionsResponse<T> query(ProjectionsQuery query) {
-    JavaType javaType = query.responseClass()
-        .map(dataClass -> objectMapper.getTypeFactory().constructParametricType(ProjectionsResponse.class, dataClass))
-        .orElse(objectMapper.getTypeFactory().constructParametricType(ProjectionResponse.class, Map.class));
+    JavaType javaType = projectionsType(query.responseClass());
 
     if (query.isAutoPagination()) {
 
@@ -207,39 +309,49 @@ public class ProjectionClient {
     }
   }
 
+  private JavaType projectionType(Optional<Class> dataClass) {
+    return dataClass
+        .map(type -> projectionTypes.computeIfAbsent(type, key -> objectMapper.getTypeFactory().constructParametricType(ProjectionResponse.class, key)))
+        .orElse(mapProjectionType);
+  }
+
+  private JavaType projectionsType(Optional<Class> dataClass) {
+    return dataClass
+        .map(type -> projectionsTypes.computeIfAbsent(type, key -> objectMapper.getTypeFactory().constructParametricType(ProjectionsResponse.class, key)))
+        .orElse(mapProjectionType);
+  }
+
   private HttpUrl.Builder pathForDefinitions() {
-    return apiRoot.newBuilder()
-        .addPathSegment("projections")
-        .addPathSegment("definitions");
+    return definitionsUrl.newBuilder();
   }
 
   private HttpUrl.Builder pathForProjections(String projectionName, ProjectionType type) {
-    return apiRoot.newBuilder()
-        .addPathSegment("projections")
+    return projectionsUrl.newBuilder()
         .addPathSegment(type.name().toLowerCase())
         .addPathSegment(projectionName);
   }
 
   public static class Builder {
 
-    private final ObjectMapper objectMapper = new ObjectMapper()
-        .disable(FAIL_ON_UNKNOWN_PROPERTIES)
-        .disable(FAIL_ON_EMPTY_BEANS)
-        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
-        .setSerializationInclusion(NON_NULL);
-
-    private final OkHttpClient httpClient;
+    private final SerializedClientConfig config;
     private final HttpUrl apiRoot;
+    private ObjectMapper objectMapper;
 
     public Builder(SerializedClientConfig config) {
-      this.httpClient = config.newHttpClient();
+      this.config = config;
+      this.objectMapper = config.objectMapper();
       this.apiRoot = config.apiRoot();
     }
 
     /**
      * Allows object mapper customization.
+     * <p>
+     * The shared object mapper of the config is copied before being customized.
      */
     public Builder configureObjectMapper(Consumer<ObjectMapper> consumer) {
+      if (objectMapper == config.objectMapper()) {
+        objectMapper = objectMapper.copy();
+      }
       consumer.accept(objectMapper);
       return this;
     }
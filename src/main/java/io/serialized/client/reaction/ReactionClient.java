@@ -1,31 +1,27 @@
 package io.serialized.client.reaction;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.serialized.client.SerializedClientConfig;
 import io.serialized.client.SerializedOkHttpClient;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
 
 import java.io.IOException;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
-import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
-import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
-import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
-
 public class ReactionClient {
 
   private final SerializedOkHttpClient client;
-  private final HttpUrl apiRoot;
+  private final HttpUrl reactionsUrl;
+  private final HttpUrl definitionsUrl;
   private final ObjectMapper objectMapper;
 
   private ReactionClient(ReactionClient.Builder builder) {
-    this.client = new SerializedOkHttpClient(builder.httpClient, builder.objectMapper);
-    this.apiRoot = builder.apiRoot;
+    this.client = new SerializedOkHttpClient(builder.config, builder.objectMapper);
+    this.reactionsUrl = builder.apiRoot.newBuilder().addPathSegment("reactions").build();
+    this.definitionsUrl = reactionsUrl.newBuilder().addPathSegment("definitions").build();
     this.objectMapper = builder.objectMapper;
   }
 
@@ -38,6 +34,14 @@ public class ReactionClient {
     client.post(url, reactionDefinition);
   }
 
+  /**
+   * Creates a Reaction definition without blocking.
+   */
+  public CompletableFuture<Void> createDefinitionAsync(ReactionDefinition reactionDefinition) {
+    HttpUrl url = pathForDefinitions().build();
+    return client.postAsync(url, reactionDefinition);
+  }
+
   /**
    * Creates a Reaction definition from a JSON String value.
    *
@@ -60,6 +64,17 @@ public class ReactionClient {
     client.put(url, reactionDefinition);
   }
 
+  /**
+   * Creates/updates a Reaction definition without blocking.
+   * <p>
+   * Note that this method is idempotent.
+   */
+  public CompletableFuture<Void> createOrUpdateAsync(ReactionDefinition reactionDefinition) {
+    String reactionName = reactionDefinition.reactionName();
+    HttpUrl url = pathForDefinitions().addPathSegment(reactionName).build();
+    return client.putAsync(url, reactionDefinition);
+  }
+
   /**
    * Creates/updates a Reaction definition from a JSON String value.
    * <p>
@@ -97,10 +112,57 @@ public class ReactionClient {
     client.delete(url);
   }
 
+  /**
+   * Delete the definition and all related reactions without blocking.
+   */
+  public CompletableFuture<Void> deleteDefinitionAsync(String reactionName) {
+    HttpUrl url = pathForDefinitions().addPathSegment(reactionName).build();
+    return client.deleteAsync(url);
+  }
+
+  /**
+   * Get reaction definition without blocking.
+   */
+  public CompletableFuture<ReactionDefinition> getDefinitionAsync(String reactionName) {
+    HttpUrl url = pathForDefinitions().addPathSegment(reactionName).build();
+    return client.getAsync(url, ReactionDefinition.class);
+  }
+
+  /**
+   * List all definitions without blocking.
+   */
+  public CompletableFuture<ReactionDefinitions> listDefinitionsAsync() {
+    HttpUrl url = pathForDefinitions().build();
+    return client.getAsync(url, ReactionDefinitions.class);
+  }
+
   /**
    * List reactions.
    */
   public ListReactionsResponse listReactions(ListReactionsRequest request) {
+    HttpUrl url = listReactionsUrl(request);
+
+    if (request.tenantId().isPresent()) {
+      return client.get(url, ListReactionsResponse.class, request.tenantId);
+    } else {
+      return client.get(url, ListReactionsResponse.class);
+    }
+  }
+
+  /**
+   * List reactions without blocking.
+   */
+  public CompletableFuture<ListReactionsResponse> listReactionsAsync(ListReactionsRequest request) {
+    HttpUrl url = listReactionsUrl(request);
+
+    if (request.tenantId().isPresent()) {
+      return client.getAsync(url, ListReactionsResponse.class, request.tenantId);
+    } else {
+      return client.getAsync(url, ListReactionsResponse.class);
+    }
+  }
+
+  private HttpUrl listReactionsUrl(ListReactionsRequest request) {
     HttpUrl.Builder urlBuilder = pathForReactions();
     Optional.ofNullable(request.status).ifPresent(status -> urlBuilder.addQueryParameter("status", status));
     Optional.ofNullable(request.from).ifPresent(from -> urlBuilder.addQueryParameter("from", from));
@@ -109,12 +171,7 @@ public class ReactionClient {
     Optional.ofNullable(request.eventId).ifPresent(eventId -> urlBuilder.addQueryParameter("eventId", eventId.toString()));
     Optional.ofNullable(request.skip).ifPresent(skip -> urlBuilder.addQueryParameter("skip", String.valueOf(skip)));
     Optional.ofNullable(request.limit).ifPresent(limit -> urlBuilder.addQueryParameter("limit", String.valueOf(limit)));
-
-    if (request.tenantId().isPresent()) {
-      return client.get(urlBuilder.build(), ListReactionsResponse.class, request.tenantId);
-    } else {
-      return client.get(urlBuilder.build(), ListReactionsResponse.class);
-    }
+    return urlBuilder.build();
   }
 
   /**
@@ -129,6 +186,18 @@ public class ReactionClient {
     }
   }
 
+  /**
+   * Execute a reaction without blocking.
+   */
+  public CompletableFuture<Void> executeReactionAsync(ExecuteReactionRequest request) {
+    HttpUrl url = pathForReactionExecution(request.reactionId).build();
+    if (request.tenantId().isPresent()) {
+      return client.postAsync(url, "", request.tenantId);
+    } else {
+      return client.postAsync(url, "");
+    }
+  }
+
   /**
    * Delete a scheduled reaction.
    */
@@ -141,50 +210,58 @@ public class ReactionClient {
     }
   }
 
+  /**
+   * Delete a scheduled reaction without blocking.
+   */
+  public CompletableFuture<Void> deleteReactionAsync(DeleteReactionRequest request) {
+    HttpUrl url = pathForReaction(request.reactionId).build();
+    if (request.tenantId().isPresent()) {
+      return client.deleteAsync(url, request.tenantId);
+    } else {
+      return client.deleteAsync(url);
+    }
+  }
+
   private HttpUrl.Builder pathForDefinitions() {
-    return apiRoot.newBuilder()
-        .addPathSegment("reactions")
-        .addPathSegment("definitions");
+    return definitionsUrl.newBuilder();
   }
 
   private HttpUrl.Builder pathForReactions() {
-    return apiRoot.newBuilder()
-        .addPathSegment("reactions");
+    return reactionsUrl.newBuilder();
   }
 
   private HttpUrl.Builder pathForReaction(UUID reactionId) {
-    return apiRoot.newBuilder()
-        .addPathSegment("reactions")
+    return reactionsUrl.newBuilder()
         .addPathSegment(reactionId.toString());
   }
 
   private HttpUrl.Builder pathForReactionExecution(UUID reactionId) {
-    return apiRoot.newBuilder()
-        .addPathSegment("reactions")
+    return reactionsUrl.newBuilder()
         .addPathSegment(reactionId.toString())
         .addPathSegment("execute");
   }
 
   public static class Builder {
 
-    private final ObjectMapper objectMapper = new ObjectMapper()
-        .disable(FAIL_ON_UNKNOWN_PROPERTIES)
-        .disable(FAIL_ON_EMPTY_BEANS)
-        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
-        .setSerializationInclusion(NON_NULL);
-
-    private final OkHttpClient httpClient;
+    private final SerializedClientConfig config;
     private final HttpUrl apiRoot;
+    private ObjectMapper objectMapper;
 
     public Builder(SerializedClientConfig config) {
-      this.httpClient = config.newHttpClient();
+      this.config = config;
+      this.objectMapper = config.objectMapper();
       this.apiRoot = config.apiRoot();
     }
 
     /**
      * Allows object mapper customization.
+     * <p>
+     * The shared object mapper of the config is copied before being customized.
      */
     public Builder configureObjectMapper(Consumer<ObjectMapper> consumer) {
+      if (objectMapper == config.objectMapper()) {
+        objectMapper = objectMapper.copy();
+      }
       consumer.accept(objectMapper);
       return this;
     }
@@ -1,29 +1,23 @@
 package io.serialized.client.tenant;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.serialized.client.SerializedClientConfig;
 import io.serialized.client.SerializedOkHttpClient;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
-import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
-import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
-import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
-
 public class TenantClient {
 
   private final SerializedOkHttpClient client;
-  private final HttpUrl apiRoot;
+  private final HttpUrl tenantsUrl;
 
   private TenantClient(Builder builder) {
-    this.client = new SerializedOkHttpClient(builder.httpClient, builder.objectMapper);
-    this.apiRoot = builder.apiRoot;
+    this.client = new SerializedOkHttpClient(builder.config, builder.objectMapper);
+    this.tenantsUrl = builder.apiRoot.newBuilder().addPathSegment("tenants").build();
   }
 
   public static TenantClient.Builder tenantClient(SerializedClientConfig config) {
@@ -31,45 +25,74 @@ public class TenantClient {
   }
 
   public void addTenant(Tenant tenant) {
-    HttpUrl url = apiRoot.newBuilder().addPathSegment("tenants").build();
-    client.post(url, tenant);
+    client.post(tenantsUrl, tenant);
   }
 
   public List<Tenant> listTenants() {
-    HttpUrl url = apiRoot.newBuilder().addPathSegment("tenants").build();
-    return client.get(url, TenantsResponse.class).tenants();
+    return client.get(tenantsUrl, TenantsResponse.class).tenants();
+  }
+
+  /**
+   * Non-blocking variant of {@link #addTenant(Tenant)}.
+   */
+  public CompletableFuture<Void> addTenantAsync(Tenant tenant) {
+    return client.postAsync(tenantsUrl, tenant);
+  }
+
+  /**
+   * Non-blocking variant of {@link #listTenants()}.
+   */
+  public CompletableFuture<List<Tenant>> listTenantsAsync() {
+    return client.getAsync(tenantsUrl, TenantsResponse.class).thenApply(TenantsResponse::tenants);
   }
 
   public void deleteTenant(UUID tenantId) {
-    HttpUrl url = apiRoot.newBuilder().addPathSegment("tenants").addPathSegment(tenantId.toString()).build();
-    client.delete(url);
+    client.delete(tenantUrl(tenantId));
+  }
+
+  /**
+   * Non-blocking variant of {@link #deleteTenant(UUID)}.
+   */
+  public CompletableFuture<Void> deleteTenantAsync(UUID tenantId) {
+    return client.deleteAsync(tenantUrl(tenantId));
   }
 
   public void updateTenant(Tenant tenant) {
-    HttpUrl url = apiRoot.newBuilder().addPathSegment("tenants").addPathSegment(tenant.tenantId().toString()).build();
-    client.put(url, tenant);
+    client.put(tenantUrl(tenant.tenantId()), tenant);
   }
 
-  public static class Builder {
+  /**
+   * Non-blocking variant of {@link #updateTenant(Tenant)}.
+   */
+  public CompletableFuture<Void> updateTenantAsync(Tenant tenant) {
+    return client.putAsync(tenantUrl(tenant.tenantId()), tenant);
+  }
 
-    private final ObjectMapper objectMapper = new ObjectMapper()
-        .disable(FAIL_ON_UNKNOWN_PROPERTIES)
-        .disable(FAIL_ON_EMPTY_BEANS)
-        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
-        .setSerializationInclusion(NON_NULL);
+  private HttpUrl tenantUrl(UUID tenantId) {
+    return tenantsUrl.newBuilder().addPathSegment(tenantId.toString()).build();
+  }
+
+  public static class Builder {
 
-    private final OkHttpClient httpClient;
+    private final SerializedClientConfig config;
     private final HttpUrl apiRoot;
+    private ObjectMapper objectMapper;
 
     public Builder(SerializedClientConfig config) {
-      this.httpClient = config.newHttpClient();
+      this.config = config;
+      this.objectMapper = config.objectMapper();
       this.apiRoot = config.apiRoot();
     }
 
     /**
      * Allows object mapper customization.
+     * <p>
+     * The shared object mapper of the config is copied before being customized.
      */
     public Builder configureObjectMapper(Consumer<ObjectMapper> consumer) {
+      if (objectMapper == config.objectMapper()) {
+        objectMapper = objectMapper.copy();
+      }
       consumer.accept(objectMapper);
       return this;
     }
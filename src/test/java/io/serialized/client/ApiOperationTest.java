@@ -0,0 +1,46 @@
+package io.serialized.client;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApiOperationTest {
+
+  @Test
+  public void testAggregateOperations() {
+    assertThat(operation("GET", "https://api.serialized.io/aggregates/order/723ecfce-14e9-4889-98d5-a3d0ad54912f?since=0"))
+        .isEqualTo(new ApiOperation("aggregate.load", "aggregates/order"));
+    assertThat(operation("POST", "https://api.serialized.io/aggregates/order/723ecfce-14e9-4889-98d5-a3d0ad54912f/events"))
+        .isEqualTo(new ApiOperation("aggregate.save", "aggregates/order"));
+    assertThat(operation("POST", "https://api.serialized.io/aggregates/order/events"))
+        .isEqualTo(new ApiOperation("aggregate.bulkSave", "aggregates/order"));
+  }
+
+  @Test
+  public void testFeedOperations() {
+    assertThat(operation("GET", "https://api.serialized.io/feeds/order?since=10"))
+        .isEqualTo(new ApiOperation("feed.poll", "feeds/order"));
+    assertThat(operation("HEAD", "https://api.serialized.io/feeds/order"))
+        .isEqualTo(new ApiOperation("feed.sequenceNumber", "feeds/order"));
+  }
+
+  @Test
+  public void testProjectionOperations() {
+    assertThat(operation("GET", "http://localhost:8080/api-stub/projections/single/orders/84e3565e-cd61-44e7-9769-c4663588c4dd"))
+        .isEqualTo(new ApiOperation("projection.query", "projections/single/orders"));
+    assertThat(operation("GET", "http://localhost:8080/api-stub/projections/single/orders"))
+        .isEqualTo(new ApiOperation("projection.list", "projections/single/orders"));
+    assertThat(operation("GET", "http://localhost:8080/api-stub/projections/single/orders/_count"))
+        .isEqualTo(new ApiOperation("projection.count", "projections/single/orders"));
+    assertThat(operation("GET", "http://localhost:8080/api-stub/projections/definitions/orders"))
+        .isEqualTo(new ApiOperation("projection.definition.get", "projections/definitions"));
+  }
+
+  private ApiOperation operation(String method, String url) {
+    RequestBody body = method.equals("POST") ? RequestBody.create(new byte[0]) : null;
+    return ApiOperation.of(new Request.Builder().url(url).method(method, body).build());
+  }
+
+}
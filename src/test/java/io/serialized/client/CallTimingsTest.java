@@ -0,0 +1,32 @@
+package io.serialized.client;
+
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CallTimingsTest {
+
+  @Test
+  public void testCallFailingBeforeConnectingIsNotReportedAsReused() {
+    OkHttpClient httpClient = new OkHttpClient.Builder()
+        .eventListenerFactory(CallTimings.eventListenerFactory(call -> EventListener.NONE))
+        .dns(hostname -> {
+          throw new UnknownHostException(hostname);
+        })
+        .build();
+    CallTimings timings = new CallTimings();
+    Request request = new Request.Builder().url("https://api.serialized.io/").tag(CallTimings.class, timings).build();
+
+    assertThatThrownBy(() -> httpClient.newCall(request).execute()).isInstanceOf(IOException.class);
+
+    assertThat(timings.toConnectionTimings().connectionReused()).isFalse();
+  }
+
+}
@@ -0,0 +1,109 @@
+package io.serialized.client;
+
+import io.serialized.client.metrics.HistogramMetrics;
+import okhttp3.Request;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static io.serialized.client.metrics.CircuitState.CLOSED;
+import static io.serialized.client.metrics.CircuitState.HALF_OPEN;
+import static io.serialized.client.metrics.CircuitState.OPEN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CircuitBreakerTest {
+
+  private static final Request LOAD_ORDER = new Request.Builder().url("https://api.serialized.io/aggregates/order/5d9c0e7a-0a5e-4c6a-9c6d-7a6f4e1e8b1a").build();
+  private static final Request LOAD_PAYMENT = new Request.Builder().url("https://api.serialized.io/aggregates/payment/5d9c0e7a-0a5e-4c6a-9c6d-7a6f4e1e8b1a").build();
+
+  private final HistogramMetrics metrics = new HistogramMetrics();
+
+  @Test
+  public void testOpensOnFailureRatePerEndpointFamily() {
+    CircuitBreaker circuitBreaker = new CircuitBreaker.Builder().withWindowSize(4).withMinimumCalls(4).build();
+
+    circuitBreaker.acquire(LOAD_ORDER, metrics).release(false);
+    circuitBreaker.acquire(LOAD_ORDER, metrics).release(false);
+    circuitBreaker.acquire(LOAD_ORDER, metrics).release(true);
+    assertThat(circuitBreaker.state("aggregates/order")).isEqualTo(CLOSED);
+    circuitBreaker.acquire(LOAD_ORDER, metrics).release(true);
+
+    assertThat(circuitBreaker.state("aggregates/order")).isEqualTo(OPEN);
+    assertThat(metrics.circuitStates()).containsEntry("aggregates/order", OPEN);
+    assertThatThrownBy(() -> circuitBreaker.acquire(LOAD_ORDER, metrics))
+        .isInstanceOf(CircuitBreakerOpenException.class)
+        .hasMessageContaining("aggregates/order");
+    circuitBreaker.acquire(LOAD_PAYMENT, metrics).release(false);
+  }
+
+  @Test
+  public void testOpensOnSlowCallRate() {
+    CircuitBreaker circuitBreaker = new CircuitBreaker.Builder()
+        .withWindowSize(2)
+        .withMinimumCalls(2)
+        .withSlowCallDuration(Duration.ZERO)
+        .withSlowCallRateThreshold(1.0)
+        .build();
+
+    circuitBreaker.acquire(LOAD_ORDER, metrics).release(false);
+    circuitBreaker.acquire(LOAD_ORDER, metrics).release(false);
+
+    assertThat(circuitBreaker.state("aggregates/order")).isEqualTo(OPEN);
+  }
+
+  @Test
+  public void testClosesAfterSuccessfulProbes() {
+    CircuitBreaker circuitBreaker = openCircuit(2);
+
+    CircuitBreaker.Permit first = circuitBreaker.acquire(LOAD_ORDER, metrics);
+    assertThat(metrics.circuitStates()).containsEntry("aggregates/order", HALF_OPEN);
+    CircuitBreaker.Permit second = circuitBreaker.acquire(LOAD_ORDER, metrics);
+    assertThatThrownBy(() -> circuitBreaker.acquire(LOAD_ORDER, metrics)).isInstanceOf(CircuitBreakerOpenException.class);
+
+    first.release(false);
+    second.release(false);
+
+    assertThat(circuitBreaker.state("aggregates/order")).isEqualTo(CLOSED);
+    assertThat(metrics.circuitStates()).containsEntry("aggregates/order", CLOSED);
+  }
+
+  @Test
+  public void testReopensOnFailedProbe() {
+    CircuitBreaker circuitBreaker = openCircuit(1);
+
+    circuitBreaker.acquire(LOAD_ORDER, metrics).release(true);
+
+    assertThat(circuitBreaker.state("aggregates/order")).isEqualTo(OPEN);
+  }
+
+  @Test
+  public void testIgnoredProbeIsReturned() {
+    CircuitBreaker circuitBreaker = openCircuit(1);
+
+    circuitBreaker.acquire(LOAD_ORDER, metrics).ignore();
+    circuitBreaker.acquire(LOAD_ORDER, metrics).release(false);
+
+    assertThat(circuitBreaker.state("aggregates/order")).isEqualTo(CLOSED);
+  }
+
+  @Test
+  public void testZeroRateThresholdIsRejected() {
+    assertThatThrownBy(() -> new CircuitBreaker.Builder().withFailureRateThreshold(0).build())
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new CircuitBreaker.Builder().withSlowCallRateThreshold(0).build())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private CircuitBreaker openCircuit(int halfOpenCalls) {
+    CircuitBreaker circuitBreaker = new CircuitBreaker.Builder()
+        .withWindowSize(1)
+        .withMinimumCalls(1)
+        .withOpenDuration(Duration.ZERO)
+        .withHalfOpenCalls(halfOpenCalls)
+        .build();
+    circuitBreaker.acquire(LOAD_ORDER, metrics).release(true);
+    return circuitBreaker;
+  }
+
+}
@@ -0,0 +1,110 @@
+package io.serialized.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ConcurrencyLimiterTest {
+
+  @Test
+  public void testFailsFastWhenQueueIsFull() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().withInitialLimit(1).withMaxQueueSize(0).build();
+
+    limiter.acquire();
+
+    assertThatThrownBy(limiter::acquire).isInstanceOf(ConcurrencyLimitExceededException.class);
+    assertThat(limiter.inFlight()).isEqualTo(1);
+  }
+
+  @Test
+  public void testTimesOutWaitingForLimit() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().withInitialLimit(1).withMaxWait(Duration.ofMillis(10)).build();
+
+    limiter.acquire();
+
+    assertThatThrownBy(limiter::acquire).isInstanceOf(ConcurrencyLimitExceededException.class);
+    assertThat(limiter.queued()).isEqualTo(0);
+  }
+
+  @Test
+  public void testInterruptedWaitIsNotATimeout() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().withInitialLimit(1).build();
+
+    limiter.acquire();
+    Thread.currentThread().interrupt();
+
+    assertThatThrownBy(limiter::acquire)
+        .isInstanceOf(ClientException.class)
+        .hasCauseInstanceOf(InterruptedException.class);
+    assertThat(Thread.interrupted()).isTrue();
+    assertThat(limiter.queued()).isEqualTo(0);
+    assertThat(limiter.inFlight()).isEqualTo(1);
+    assertThat(limiter.limit()).isEqualTo(1);
+  }
+
+  @Test
+  public void testGrantsWaitingCallOnRelease() {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().withInitialLimit(1).build();
+
+      ConcurrencyLimiter.Permit permit = limiter.acquire();
+      CompletableFuture<ConcurrencyLimiter.Permit> waiting = limiter.acquireAsync(scheduler);
+      assertThat(waiting).isNotDone();
+      assertThat(limiter.queued()).isEqualTo(1);
+
+      permit.release(false);
+
+      assertThat(waiting).isCompleted();
+      assertThat(limiter.inFlight()).isEqualTo(1);
+      assertThat(limiter.queued()).isEqualTo(0);
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testDecreasesLimitWhenOverloaded() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().withInitialLimit(10).withBackoffRatio(0.5).build();
+
+    limiter.acquire().release(true);
+    assertThat(limiter.limit()).isEqualTo(5);
+
+    limiter.acquire().release(true);
+    limiter.acquire().release(true);
+    limiter.acquire().release(true);
+    assertThat(limiter.limit()).isEqualTo(1);
+  }
+
+  @Test
+  public void testIncreasesLimitWhenSaturated() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().withInitialLimit(2).build();
+
+    for (int i = 0; i < 4; i++) {
+      ConcurrencyLimiter.Permit first = limiter.acquire();
+      ConcurrencyLimiter.Permit second = limiter.acquire();
+      first.release(false);
+      second.release(false);
+    }
+
+    assertThat(limiter.limit()).isEqualTo(3);
+  }
+
+  @Test
+  public void testLimitIsNotIncreasedWhenUnderused() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().withInitialLimit(2).build();
+
+    for (int i = 0; i < 10; i++) {
+      limiter.acquire().release(false);
+    }
+
+    assertThat(limiter.limit()).isEqualTo(2);
+  }
+
+}
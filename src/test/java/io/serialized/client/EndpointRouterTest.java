@@ -0,0 +1,92 @@
+package io.serialized.client;
+
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EndpointRouterTest {
+
+  private final EndpointRouter router = new EndpointRouter(Arrays.asList(
+      HttpUrl.get("https://eu.api.serialized.io/"),
+      HttpUrl.get("https://us.api.serialized.io/")));
+
+  private final EndpointRouter.Endpoint eu = router.endpoints().get(0);
+  private final EndpointRouter.Endpoint us = router.endpoints().get(1);
+
+  @Test
+  public void testPrefersLowestLatency() {
+    eu.onResult(false, MILLISECONDS.toNanos(100));
+    us.onResult(false, MILLISECONDS.toNanos(5));
+
+    for (int i = 0; i < 20; i++) {
+      assertThat(router.choose(emptyList())).isSameAs(us);
+    }
+  }
+
+  @Test
+  public void testLatencySpikeIsAvoidedRightAway() {
+    eu.onResult(false, MILLISECONDS.toNanos(10));
+    us.onResult(false, MILLISECONDS.toNanos(5));
+    us.onResult(false, MILLISECONDS.toNanos(500));
+
+    assertThat(router.choose(emptyList())).isSameAs(eu);
+  }
+
+  @Test
+  public void testEndpointIsUsedAgainAfterLatencySpike() {
+    AtomicLong now = new AtomicLong();
+    EndpointRouter router = new EndpointRouter(Arrays.asList(
+        HttpUrl.get("https://eu.api.serialized.io/"),
+        HttpUrl.get("https://us.api.serialized.io/")), now::get);
+    EndpointRouter.Endpoint eu = router.endpoints().get(0);
+    EndpointRouter.Endpoint us = router.endpoints().get(1);
+    eu.onResult(false, MILLISECONDS.toNanos(10));
+    us.onResult(false, MILLISECONDS.toNanos(500));
+
+    // Calls every 100 ms for two minutes, with us having recovered to 5 ms
+    int callsToUs = 0;
+    for (int i = 0; i < 1200; i++) {
+      now.addAndGet(MILLISECONDS.toNanos(100));
+      EndpointRouter.Endpoint chosen = router.choose(emptyList());
+      chosen.onResult(false, MILLISECONDS.toNanos(chosen == us ? 5 : 10));
+      if (i >= 1000 && chosen == us) {
+        callsToUs++;
+      }
+    }
+
+    assertThat(callsToUs).isGreaterThan(150);
+  }
+
+  @Test
+  public void testFailingEndpointIsEjected() {
+    eu.onResult(false, MILLISECONDS.toNanos(5));
+    us.onResult(false, MILLISECONDS.toNanos(100));
+    eu.onResult(true, -1);
+
+    assertThat(router.choose(emptyList())).isSameAs(us);
+  }
+
+  @Test
+  public void testFailsOverToEndpointsNotTried() {
+    eu.onResult(false, MILLISECONDS.toNanos(5));
+    us.onResult(false, MILLISECONDS.toNanos(100));
+
+    assertThat(router.choose(singletonList(eu))).isSameAs(us);
+  }
+
+  @Test
+  public void testAllEjectedPicksFirstToRecover() {
+    eu.onResult(true, -1);
+    us.onResult(true, -1);
+
+    assertThat(router.choose(emptyList())).isSameAs(eu);
+  }
+
+}
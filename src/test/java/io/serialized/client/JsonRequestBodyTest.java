@@ -0,0 +1,70 @@
+package io.serialized.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okio.Buffer;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonRequestBodyTest {
+
+  @Test
+  public void testWritesPayloadToSink() throws IOException {
+    JsonRequestBody body = new JsonRequestBody(new ObjectMapper().writer().without(AUTO_CLOSE_TARGET), Collections.singletonMap("orderId", "123"));
+
+    Buffer sink = new Buffer();
+    body.writeTo(sink);
+
+    assertThat(sink.readUtf8()).isEqualTo("{\"orderId\":\"123\"}");
+    assertThat(body.contentType()).isEqualTo(SerializedClientConfig.JSON_MEDIA_TYPE);
+    assertThat(body.contentLength()).isEqualTo(-1);
+  }
+
+  @Test
+  public void testCanBeWrittenMoreThanOnce() throws IOException {
+    JsonRequestBody body = new JsonRequestBody(new ObjectMapper().writer().without(AUTO_CLOSE_TARGET), Collections.singletonList(1));
+
+    Buffer sink = new Buffer();
+    body.writeTo(sink);
+    body.writeTo(sink);
+
+    assertThat(sink.readUtf8()).isEqualTo("[1][1]");
+  }
+
+  @Test
+  public void testSmallPayloadIsNotCompressed() throws IOException {
+    JsonRequestBody body = JsonRequestBody.compressedAbove(100, new ObjectMapper().writer().without(AUTO_CLOSE_TARGET), Collections.singletonList(1));
+
+    Buffer sink = new Buffer();
+    body.writeTo(sink);
+
+    assertThat(body.contentEncoding()).isNull();
+    assertThat(body.contentLength()).isEqualTo(3);
+    assertThat(sink.readUtf8()).isEqualTo("[1]");
+  }
+
+  @Test
+  public void testLargePayloadIsCompressed() throws IOException {
+    String[] payload = new String[1000];
+    Arrays.fill(payload, "event");
+    JsonRequestBody body = JsonRequestBody.compressedAbove(100, new ObjectMapper().writer().without(AUTO_CLOSE_TARGET), payload);
+
+    Buffer sink = new Buffer();
+    body.writeTo(sink);
+
+    assertThat(body.contentEncoding()).isEqualTo("gzip");
+    assertThat(body.contentLength()).isEqualTo(-1);
+    assertThat(body.bytesWritten()).isEqualTo(sink.size()).isLessThan(1000);
+    String json = IOUtils.toString(new GZIPInputStream(sink.inputStream()), UTF_8);
+    assertThat(new ObjectMapper().readValue(json, String[].class)).isEqualTo(payload);
+  }
+
+}
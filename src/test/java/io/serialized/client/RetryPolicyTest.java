@@ -0,0 +1,85 @@
+package io.serialized.client;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RetryPolicyTest {
+
+  private static final Request GET = new Request.Builder().url("https://api.serialized.io/aggregates").build();
+
+  @Test
+  public void testRetriesIdempotentCallsUpToMaxRetries() {
+    RetryPolicy policy = new RetryPolicy.Builder().withMaxRetries(2).withBaseDelay(Duration.ofMillis(10)).build();
+
+    RetryPolicy.Retries retries = policy.retries(GET);
+
+    assertThat(retries.delayAfterFailure()).isBetween(10L, 5000L);
+    assertThat(retries.attempt()).isEqualTo(1);
+    assertThat(retries.delayAfterResponse(response(503))).isBetween(10L, 5000L);
+    assertThat(retries.attempt()).isEqualTo(2);
+    assertThat(retries.delayAfterFailure()).isEqualTo(-1);
+  }
+
+  @Test
+  public void testDoesNotRetryNonIdempotentCalls() {
+    Request post = GET.newBuilder().post(okhttp3.RequestBody.create(new byte[0])).build();
+
+    assertThat(new RetryPolicy.Builder().build().retries(post).delayAfterFailure()).isEqualTo(-1);
+    assertThat(RetryPolicy.NONE.retries(GET).delayAfterFailure()).isEqualTo(-1);
+  }
+
+  @Test
+  public void testOnlyRetriesServerErrorsAndTooManyRequests() {
+    RetryPolicy policy = new RetryPolicy.Builder().build();
+
+    assertThat(policy.retries(GET).delayAfterResponse(response(404))).isEqualTo(-1);
+    assertThat(policy.retries(GET).delayAfterResponse(response(409))).isEqualTo(-1);
+    assertThat(policy.retries(GET).delayAfterResponse(response(429))).isGreaterThanOrEqualTo(0);
+    assertThat(policy.retries(GET).delayAfterResponse(response(500))).isGreaterThanOrEqualTo(0);
+  }
+
+  @Test
+  public void testHonorsRetryAfter() {
+    RetryPolicy policy = new RetryPolicy.Builder().withMaxDelay(Duration.ofSeconds(5)).build();
+
+    Response retryInTwoSeconds = response(503).newBuilder().header("Retry-After", "2").build();
+    Response retryInOneMinute = response(503).newBuilder().header("Retry-After", "60").build();
+
+    assertThat(policy.retries(GET).delayAfterResponse(retryInTwoSeconds)).isGreaterThanOrEqualTo(2000);
+    assertThat(policy.retries(GET).delayAfterResponse(retryInOneMinute)).isEqualTo(-1);
+  }
+
+  @Test
+  public void testParsesRetryAfter() {
+    assertThat(RetryPolicy.retryAfterMs(null)).isEqualTo(0);
+    assertThat(RetryPolicy.retryAfterMs("3")).isEqualTo(3000);
+    assertThat(RetryPolicy.retryAfterMs("Wed, 21 Oct 2015 07:28:00 GMT")).isEqualTo(0);
+    assertThat(RetryPolicy.retryAfterMs("soon")).isEqualTo(0);
+  }
+
+  @Test
+  public void testRetryBudgetLimitsRetries() {
+    RetryBudget budget = new RetryBudget(2, 0.5);
+    RetryPolicy policy = new RetryPolicy.Builder().withRetryBudget(budget).build();
+
+    assertThat(policy.retries(GET).delayAfterFailure()).isGreaterThanOrEqualTo(0);
+    assertThat(policy.retries(GET).delayAfterFailure()).isGreaterThanOrEqualTo(0);
+    assertThat(budget.availableRetries()).isEqualTo(0.5);
+
+    // Two requests deposit one token
+    RetryPolicy.Retries retries = policy.retries(GET);
+    assertThat(retries.delayAfterFailure()).isGreaterThanOrEqualTo(0);
+    assertThat(retries.delayAfterFailure()).isEqualTo(-1);
+  }
+
+  private static Response response(int code) {
+    return new Response.Builder().request(GET).protocol(Protocol.HTTP_1_1).code(code).message("").build();
+  }
+
+}
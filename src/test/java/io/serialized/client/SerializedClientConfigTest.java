@@ -1,9 +1,12 @@
 package io.serialized.client;
 
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.junit.jupiter.api.Test;
 
 import static java.time.Duration.ofSeconds;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class SerializedClientConfigTest {
 
@@ -39,4 +42,67 @@ public class SerializedClientConfigTest {
     assertThat(defaultConfig.newHttpClient().callTimeoutMillis()).isEqualTo(20_000);
   }
 
+  @Test
+  public void testSharedHttpClientAndObjectMapper() {
+    SerializedClientConfig config = SerializedClientConfig.serializedConfig()
+        .accessKey("aaaaa")
+        .secretAccessKey("bbbbb")
+        .build();
+
+    assertThat(config.httpClient()).isSameAs(config.httpClient());
+    assertThat(config.objectMapper()).isSameAs(config.objectMapper());
+    assertThat(config.newHttpClient()).isNotSameAs(config.httpClient());
+  }
+
+  @Test
+  public void testSeparateLongPollHttpClient() {
+    SerializedClientConfig config = SerializedClientConfig.serializedConfig()
+        .accessKey("aaaaa")
+        .secretAccessKey("bbbbb")
+        .configureLongPollHttpClient(builder -> builder.readTimeout(ofSeconds(120)))
+        .build();
+
+    OkHttpClient longPollHttpClient = config.longPollHttpClient();
+    assertThat(longPollHttpClient.dispatcher()).isNotSameAs(config.httpClient().dispatcher());
+    assertThat(longPollHttpClient.connectionPool()).isNotSameAs(config.httpClient().connectionPool());
+    assertThat(longPollHttpClient.interceptors()).isEqualTo(config.httpClient().interceptors());
+    assertThat(longPollHttpClient.readTimeoutMillis()).isEqualTo(120_000);
+  }
+
+  @Test
+  public void testHttpVersion() {
+    SerializedClientConfig config = SerializedClientConfig.serializedConfig()
+        .rootApiUrl("http://localhost:8080/")
+        .accessKey("aaaaa")
+        .secretAccessKey("bbbbb")
+        .httpVersion(HttpVersion.H2C_PRIOR_KNOWLEDGE)
+        .maxConcurrentRequests(64)
+        .build();
+
+    assertThat(config.httpClient().protocols()).containsExactly(Protocol.H2_PRIOR_KNOWLEDGE);
+    assertThat(config.httpClient().dispatcher().getMaxRequestsPerHost()).isEqualTo(64);
+    assertThat(config.longPollHttpClient().protocols()).containsExactly(Protocol.H2_PRIOR_KNOWLEDGE);
+  }
+
+  @Test
+  public void testPriorKnowledgeRequiresCleartext() {
+    SerializedClientConfig.Builder builder = SerializedClientConfig.serializedConfig()
+        .accessKey("aaaaa")
+        .secretAccessKey("bbbbb")
+        .httpVersion(HttpVersion.H2C_PRIOR_KNOWLEDGE);
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  public void testCompressionThresholdBelowDisabledIsRejected() {
+    SerializedClientConfig.Builder builder = SerializedClientConfig.serializedConfig()
+        .accessKey("aaaaa")
+        .secretAccessKey("bbbbb")
+        .compressRequestsAbove(-2);
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, builder::build);
+    assertThat(exception.getMessage()).contains("-1 to disable compression");
+  }
+
 }
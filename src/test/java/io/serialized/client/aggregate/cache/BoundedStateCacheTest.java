@@ -0,0 +1,225 @@
+package io.serialized.client.aggregate.cache;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BoundedStateCacheTest {
+
+  @Test
+  public void testBoundedBySize() {
+    BoundedStateCache<String> cache = new BoundedStateCache.Builder<String>().withMaximumSize(100).build();
+
+    for (int i = 0; i < 1000; i++) {
+      cache.put(UUID.randomUUID(), new VersionedState<>("state", 1));
+    }
+
+    assertThat(cache.size()).isEqualTo(100);
+    assertThat(cache.stats().evictionCount()).isEqualTo(900);
+  }
+
+  @Test
+  public void testFrequentlyUsedStatesSurviveScan() {
+    // Sized so that the hot states take few of the sketch counters, keeping cold states from being overestimated
+    BoundedStateCache<String> cache = new BoundedStateCache.Builder<String>().withMaximumSize(1000).build();
+    Random random = new Random(42);
+    List<UUID> hot = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      UUID aggregateId = new UUID(random.nextLong(), random.nextLong());
+      hot.add(aggregateId);
+      cache.put(aggregateId, new VersionedState<>("hot", 1));
+    }
+    for (int i = 0; i < 10; i++) {
+      hot.forEach(cache::get);
+    }
+
+    // Ten times more states used once than the cache holds, which would flush plain LRU
+    for (int i = 0; i < 10_000; i++) {
+      cache.put(new UUID(random.nextLong(), random.nextLong()), new VersionedState<>("cold", 1));
+    }
+
+    assertThat(hot).allMatch(aggregateId -> cache.get(aggregateId).isPresent());
+  }
+
+  @Test
+  public void testBoundedByWeight() {
+    BoundedStateCache<String> cache = new BoundedStateCache.Builder<String>()
+        .withMaximumWeight(100, (aggregateId, versionedState) -> versionedState.state().length())
+        .build();
+
+    for (int i = 0; i < 10; i++) {
+      cache.put(UUID.randomUUID(), new VersionedState<>("0123456789012345678901234", 1));
+    }
+    UUID tooHeavy = UUID.randomUUID();
+    cache.put(tooHeavy, new VersionedState<>(new String(new char[101]), 1));
+
+    assertThat(cache.weightedSize()).isLessThanOrEqualTo(100);
+    assertThat(cache.size()).isBetween(1L, 4L);
+    assertThat(cache.get(tooHeavy)).isEmpty();
+  }
+
+  @Test
+  public void testBoundedByWeightWhenStatesGrow() {
+    BoundedStateCache<String> cache = new BoundedStateCache.Builder<String>()
+        .withMaximumWeight(1000, (aggregateId, versionedState) -> versionedState.state().length())
+        .withConcurrencyLevel(1)
+        .build();
+    List<UUID> aggregateIds = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      UUID aggregateId = UUID.randomUUID();
+      aggregateIds.add(aggregateId);
+      cache.put(aggregateId, new VersionedState<>("0123456789", 1));
+    }
+    // Promote the states from probation to protected
+    aggregateIds.forEach(cache::get);
+
+    for (UUID aggregateId : aggregateIds) {
+      cache.put(aggregateId, new VersionedState<>(StringUtils.repeat('x', 50), 2));
+      assertThat(cache.weightedSize()).isLessThanOrEqualTo(1000);
+    }
+    assertThat(cache.size()).isBetween(1L, 20L);
+  }
+
+  @Test
+  public void testExpireAfterWrite() {
+    AtomicLong nanos = new AtomicLong();
+    BoundedStateCache<String> cache = new BoundedStateCache.Builder<String>()
+        .withMaximumSize(100)
+        .withExpireAfterWrite(Duration.ofMinutes(1))
+        .withTicker(nanos::get)
+        .build();
+    UUID aggregateId = UUID.randomUUID();
+
+    cache.put(aggregateId, new VersionedState<>("state", 1));
+    nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+    assertThat(cache.get(aggregateId)).isPresent();
+    nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+
+    assertThat(cache.get(aggregateId)).isEmpty();
+    assertThat(cache.size()).isZero();
+    assertThat(cache.stats().expirationCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testStats() {
+    BoundedStateCache<String> cache = new BoundedStateCache.Builder<String>().withMaximumSize(100).build();
+    UUID aggregateId = UUID.randomUUID();
+
+    cache.get(aggregateId);
+    cache.put(aggregateId, new VersionedState<>("state", 1));
+    cache.get(aggregateId);
+    cache.get(aggregateId);
+    cache.get(aggregateId);
+
+    StateCacheStats stats = cache.stats();
+    assertThat(stats.hitCount()).isEqualTo(3);
+    assertThat(stats.missCount()).isEqualTo(1);
+    assertThat(stats.hitRate()).isEqualTo(0.75);
+  }
+
+  @Test
+  public void testPutReplacesAndInvalidateRemoves() {
+    BoundedStateCache<String> cache = new BoundedStateCache.Builder<String>().withMaximumSize(100).build();
+    UUID aggregateId = UUID.randomUUID();
+
+    cache.put(aggregateId, new VersionedState<>("state", 1));
+    cache.put(aggregateId, new VersionedState<>("state", 2));
+    assertThat(cache.get(aggregateId).map(VersionedState::version)).contains(2);
+    assertThat(cache.size()).isEqualTo(1);
+
+    cache.invalidate(aggregateId);
+    assertThat(cache.get(aggregateId)).isEmpty();
+    assertThat(cache.weightedSize()).isZero();
+  }
+
+  @Test
+  public void testBoundedUnderConcurrentUse() throws Exception {
+    BoundedStateCache<String> cache = new BoundedStateCache.Builder<String>().withMaximumSize(10_000).build();
+    List<UUID> aggregateIds = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      aggregateIds.add(UUID.randomUUID());
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < 8; thread++) {
+      int offset = thread;
+      futures.add(executor.submit(() -> {
+        for (int i = offset; i < aggregateIds.size(); i += 8) {
+          UUID aggregateId = aggregateIds.get(i);
+          cache.put(aggregateId, new VersionedState<>("state", i));
+          cache.get(aggregateIds.get(i / 2));
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get(10, SECONDS);
+    }
+    executor.shutdown();
+
+    assertThat(cache.size()).isLessThanOrEqualTo(10_000);
+    assertThat(cache.weightedSize()).isEqualTo(cache.size());
+  }
+
+  @Test
+  public void testContendedHitsKeepFrequentlyUsedStates() throws Exception {
+    BoundedStateCache<String> cache = new BoundedStateCache.Builder<String>().withMaximumSize(1000).build();
+    List<UUID> hot = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      UUID aggregateId = UUID.randomUUID();
+      hot.add(aggregateId);
+      cache.put(aggregateId, new VersionedState<>("hot", 1));
+      for (int j = 0; j < 20; j++) {
+        cache.get(aggregateId);
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(9);
+    AtomicLong misses = new AtomicLong();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < 8; thread++) {
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < 100_000; i++) {
+          if (!cache.get(hot.get(i % hot.size())).isPresent()) {
+            misses.incrementAndGet();
+          }
+        }
+      }));
+    }
+    futures.add(executor.submit(() -> {
+      for (int i = 0; i < 20_000; i++) {
+        cache.put(UUID.randomUUID(), new VersionedState<>("cold", 1));
+      }
+    }));
+    for (Future<?> future : futures) {
+      future.get(30, SECONDS);
+    }
+    executor.shutdown();
+
+    assertThat(misses.get()).isZero();
+    assertThat(cache.size()).isLessThanOrEqualTo(1000);
+    assertThat(cache.weightedSize()).isEqualTo(cache.size());
+  }
+
+  @Test
+  public void testEitherSizeOrWeightMustBeSet() {
+    assertThatThrownBy(() -> new BoundedStateCache.Builder<String>().build())
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new BoundedStateCache.Builder<String>().withMaximumSize(10).withMaximumWeight(10, (id, state) -> 1).build())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
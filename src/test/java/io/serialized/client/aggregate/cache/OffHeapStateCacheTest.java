@@ -0,0 +1,113 @@
+package io.serialized.client.aggregate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OffHeapStateCacheTest {
+
+  private final StateCodec<String> codec = StateCodec.json(new ObjectMapper(), String.class);
+
+  @Test
+  public void testPutAndGet() {
+    OffHeapStateCache<String> cache = new OffHeapStateCache.Builder<>(codec).withCapacityBytes(1024 * 1024).build();
+    UUID aggregateId = UUID.randomUUID();
+
+    cache.put(aggregateId, new VersionedState<>("first", 1));
+    cache.put(aggregateId, new VersionedState<>("second", 2));
+
+    Optional<VersionedState<String>> cached = cache.get(aggregateId);
+    assertThat(cached.map(VersionedState::state)).contains("second");
+    assertThat(cached.map(VersionedState::version)).contains(2);
+    assertThat(cache.get(UUID.randomUUID())).isEmpty();
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.stats().hitCount()).isEqualTo(1);
+    assertThat(cache.stats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testInvalidate() {
+    OffHeapStateCache<String> cache = new OffHeapStateCache.Builder<>(codec).withCapacityBytes(1024 * 1024).build();
+    UUID aggregateId = UUID.randomUUID();
+
+    cache.put(aggregateId, new VersionedState<>("state", 1));
+    cache.invalidate(aggregateId);
+
+    assertThat(cache.get(aggregateId)).isEmpty();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void testEvictsOldestWhenFull() {
+    OffHeapStateCache<String> cache = new OffHeapStateCache.Builder<>(codec).withCapacityBytes(1024).withSegments(1).build();
+    List<UUID> aggregateIds = new ArrayList<>();
+
+    for (int i = 0; i < 100; i++) {
+      UUID aggregateId = UUID.randomUUID();
+      aggregateIds.add(aggregateId);
+      cache.put(aggregateId, new VersionedState<>("state-" + i, i));
+    }
+
+    assertThat(cache.size()).isBetween(1L, 99L);
+    assertThat(cache.stats().evictionCount()).isEqualTo(100 - cache.size());
+    assertThat(cache.get(aggregateIds.get(0))).isEmpty();
+    assertThat(cache.get(aggregateIds.get(99)).map(VersionedState::state)).contains("state-99");
+  }
+
+  @Test
+  public void testStateLargerThanSegmentIsNotCached() {
+    OffHeapStateCache<String> cache = new OffHeapStateCache.Builder<>(codec).withCapacityBytes(1024).withSegments(1).build();
+    UUID aggregateId = UUID.randomUUID();
+
+    cache.put(aggregateId, new VersionedState<>("small", 1));
+    cache.put(aggregateId, new VersionedState<>(StringUtils.repeat('x', 2000), 2));
+
+    assertThat(cache.get(aggregateId)).isEmpty();
+  }
+
+  @Test
+  public void testNeverReturnsStaleOrCorruptStates() {
+    OffHeapStateCache<String> cache = new OffHeapStateCache.Builder<>(codec).withCapacityBytes(4096).withSegments(2).build();
+    List<UUID> aggregateIds = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      aggregateIds.add(UUID.randomUUID());
+    }
+    Map<UUID, Integer> latestVersions = new HashMap<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 20_000; i++) {
+      UUID aggregateId = aggregateIds.get(random.nextInt(aggregateIds.size()));
+      int operation = random.nextInt(10);
+      if (operation < 5) {
+        int version = latestVersions.merge(aggregateId, 1, Integer::sum);
+        cache.put(aggregateId, new VersionedState<>(StringUtils.repeat('x', random.nextInt(200)) + version, version));
+      } else if (operation < 9) {
+        cache.get(aggregateId).ifPresent(cached -> {
+          assertThat(cached.version()).isEqualTo(latestVersions.get(aggregateId));
+          assertThat(cached.state()).endsWith(String.valueOf(cached.version()));
+        });
+      } else {
+        cache.invalidate(aggregateId);
+      }
+    }
+    assertThat(cache.stats().hitCount()).isPositive();
+  }
+
+  @Test
+  public void testSegmentsMustBePowerOfTwo() {
+    assertThatThrownBy(() -> new OffHeapStateCache.Builder<>(codec).withSegments(3).build())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
@@ -0,0 +1,194 @@
+package io.serialized.client.aggregate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PersistentStateCacheTest {
+
+  private final StateCodec<String> codec = StateCodec.json(new ObjectMapper(), String.class);
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void testStatesSurviveRestart() {
+    UUID aggregateId = UUID.randomUUID();
+    UUID invalidatedId = UUID.randomUUID();
+    try (PersistentStateCache<String> cache = newCache(64 * 1024)) {
+      cache.put(aggregateId, new VersionedState<>("first", 1));
+      cache.put(aggregateId, new VersionedState<>("second", 2));
+      cache.put(invalidatedId, new VersionedState<>("invalidated", 1));
+      cache.invalidate(invalidatedId);
+    }
+
+    try (PersistentStateCache<String> cache = newCache(64 * 1024)) {
+      Optional<VersionedState<String>> cached = cache.get(aggregateId);
+      assertThat(cached.map(VersionedState::state)).contains("second");
+      assertThat(cached.map(VersionedState::version)).contains(2);
+      assertThat(cache.get(invalidatedId)).isEmpty();
+      assertThat(cache.size()).isEqualTo(1);
+
+      cache.put(aggregateId, new VersionedState<>("third", 3));
+    }
+
+    try (PersistentStateCache<String> cache = newCache(64 * 1024)) {
+      assertThat(cache.get(aggregateId).map(VersionedState::state)).contains("third");
+    }
+  }
+
+  @Test
+  public void testCorruptRecordIsDiscardedOnRestart() throws IOException {
+    UUID intactId = UUID.randomUUID();
+    UUID corruptId = UUID.randomUUID();
+    try (PersistentStateCache<String> cache = newCache(64 * 1024)) {
+      cache.put(intactId, new VersionedState<>("intact", 1));
+      cache.put(corruptId, new VersionedState<>("corrupt", 1));
+    }
+
+    // Flip a byte of the last state, as if the write was torn by a crash
+    try (RandomAccessFile file = new RandomAccessFile(directory.resolve("segment-0.dat").toFile(), "rw")) {
+      long offset = 8 + 32 + codec.encode("intact").length + 32 + 2;
+      file.seek(offset);
+      byte value = file.readByte();
+      file.seek(offset);
+      file.writeByte(value ^ 1);
+    }
+
+    try (PersistentStateCache<String> cache = newCache(64 * 1024)) {
+      assertThat(cache.get(intactId).map(VersionedState::state)).contains("intact");
+      assertThat(cache.get(corruptId)).isEmpty();
+
+      cache.put(corruptId, new VersionedState<>("rewritten", 2));
+    }
+
+    try (PersistentStateCache<String> cache = newCache(64 * 1024)) {
+      assertThat(cache.get(corruptId).map(VersionedState::state)).contains("rewritten");
+    }
+  }
+
+  @Test
+  public void testCompactionReclaimsReplacedStates() throws IOException {
+    UUID aggregateId = UUID.randomUUID();
+    UUID otherId = UUID.randomUUID();
+    try (PersistentStateCache<String> cache = new PersistentStateCache.Builder<>(directory, codec)
+        .withSegmentSize(4096)
+        .withMaxSize(1024 * 1024)
+        .withCompactionInterval(Duration.ZERO)
+        .build()) {
+
+      cache.put(otherId, new VersionedState<>("other", 1));
+      for (int version = 1; version <= 200; version++) {
+        cache.put(aggregateId, new VersionedState<>(StringUtils.repeat('x', 100) + version, version));
+      }
+      int segmentsBefore = cache.segmentCount();
+
+      cache.compact();
+
+      assertThat(segmentsBefore).isGreaterThan(5);
+      assertThat(cache.segmentCount()).isLessThanOrEqualTo(2);
+      assertThat(segmentFiles()).hasSize(cache.segmentCount());
+      assertThat(cache.get(aggregateId).map(VersionedState::version)).contains(200);
+      assertThat(cache.get(otherId).map(VersionedState::state)).contains("other");
+    }
+
+    try (PersistentStateCache<String> cache = newCache(4096)) {
+      assertThat(cache.get(aggregateId).map(VersionedState::version)).contains(200);
+      assertThat(cache.get(otherId).map(VersionedState::state)).contains("other");
+    }
+  }
+
+  @Test
+  public void testDropsOldestSegmentWhenFull() throws IOException {
+    List<UUID> aggregateIds = new ArrayList<>();
+    try (PersistentStateCache<String> cache = new PersistentStateCache.Builder<>(directory, codec)
+        .withSegmentSize(4096)
+        .withMaxSize(4 * 4096)
+        .withCompactionInterval(Duration.ZERO)
+        .build()) {
+
+      for (int i = 0; i < 500; i++) {
+        UUID aggregateId = UUID.randomUUID();
+        aggregateIds.add(aggregateId);
+        cache.put(aggregateId, new VersionedState<>("state-" + i, i));
+      }
+
+      assertThat(segmentFiles()).hasSize(4);
+      assertThat(cache.stats().evictionCount()).isEqualTo(500 - cache.size());
+      assertThat(cache.get(aggregateIds.get(0))).isEmpty();
+      assertThat(cache.get(aggregateIds.get(499)).map(VersionedState::state)).contains("state-499");
+    }
+  }
+
+  @Test
+  public void testFlushCoversRolledOverSegments() {
+    try (PersistentStateCache<String> cache = newCache(4096)) {
+      for (int i = 0; i < 100; i++) {
+        cache.put(UUID.randomUUID(), new VersionedState<>(StringUtils.repeat('x', 100), 1));
+      }
+      assertThat(cache.segmentCount()).isGreaterThan(2);
+      assertThat(cache.unflushedSegmentCount()).isEqualTo(cache.segmentCount());
+
+      cache.flush();
+
+      assertThat(cache.unflushedSegmentCount()).isZero();
+    }
+  }
+
+  @Test
+  public void testStateLargerThanSegmentIsNotCached() {
+    try (PersistentStateCache<String> cache = newCache(4096)) {
+      UUID aggregateId = UUID.randomUUID();
+
+      cache.put(aggregateId, new VersionedState<>("small", 1));
+      cache.put(aggregateId, new VersionedState<>(StringUtils.repeat('x', 5000), 2));
+
+      assertThat(cache.get(aggregateId)).isEmpty();
+    }
+  }
+
+  @Test
+  public void testClosedCacheCannotBeUsed() {
+    UUID aggregateId = UUID.randomUUID();
+    PersistentStateCache<String> cache = newCache(4096);
+    cache.put(aggregateId, new VersionedState<>("state", 1));
+    cache.close();
+    cache.close();
+
+    assertThatThrownBy(() -> cache.get(aggregateId)).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> cache.put(aggregateId, new VersionedState<>("state", 2))).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> cache.invalidate(aggregateId)).isInstanceOf(IllegalStateException.class);
+  }
+
+  private PersistentStateCache<String> newCache(long segmentSize) {
+    return new PersistentStateCache.Builder<>(directory, codec)
+        .withSegmentSize(segmentSize)
+        .withMaxSize(1024 * 1024)
+        .withCompactionInterval(Duration.ZERO)
+        .build();
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (Stream<Path> stream = Files.list(directory)) {
+      stream.forEach(files::add);
+    }
+    return files;
+  }
+
+}
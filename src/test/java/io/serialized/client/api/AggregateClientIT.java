@@ -5,6 +5,8 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.google.common.collect.ImmutableMap;
 import io.dropwizard.testing.junit5.DropwizardClientExtension;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import io.serialized.client.ApiException;
+import io.serialized.client.ApiOperation;
 import io.serialized.client.ConcurrencyException;
 import io.serialized.client.InvalidRequestException;
 import io.serialized.client.SerializedClientConfig;
@@ -26,14 +28,18 @@ import io.serialized.client.aggregate.order.OrderDeleted;
 import io.serialized.client.aggregate.order.OrderPlaced;
 import io.serialized.client.aggregate.order.OrderState;
 import io.serialized.client.aggregate.order.OrderStatus;
+import io.serialized.client.metrics.HistogramMetrics;
+import io.serialized.client.metrics.RequestMetrics;
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 
+import javax.ws.rs.WebApplicationException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +47,10 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static io.serialized.client.EventTypeMatcher.containsEventType;
 import static io.serialized.client.aggregate.AggregateBulkRequest.bulkRequest;
@@ -51,17 +61,22 @@ import static io.serialized.client.aggregate.Event.newEvent;
 import static io.serialized.client.aggregate.order.OrderPlaced.orderPlaced;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static javax.ws.rs.core.Response.Status.FORBIDDEN;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -178,6 +193,70 @@ public class AggregateClientIT {
     verify(apiCallback, times(1)).eventsStored(eq(orderId), argThat(containsEventType("OrderCanceled")));
   }
 
+  @Test
+  public void testUpdateAsync() throws Exception {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig())
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .build();
+
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 0, 1000)).thenReturn(getResource("/aggregate/placed_order1.json"));
+    when(apiCallback.eventsStored(eq(orderId), any(EventBatch.class))).thenReturn(OK);
+
+    assertThat(orderClient.updateAsync(orderId, orderState -> new Order(orderState).cancel()).get()).isEqualTo(1);
+
+    verify(apiCallback, times(1)).eventsStored(eq(orderId), argThat(containsEventType("OrderCanceled")));
+  }
+
+  @Test
+  public void testUpdateReportsMetrics() throws IOException {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+    HistogramMetrics metrics = new HistogramMetrics();
+
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig(builder -> builder.metrics(metrics)))
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .build();
+
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 0, 1000)).thenReturn(getResource("/aggregate/placed_order1.json"));
+    when(apiCallback.eventsStored(eq(orderId), any(EventBatch.class))).thenReturn(OK);
+
+    orderClient.update(orderId, orderState -> new Order(orderState).cancel());
+
+    HistogramMetrics.OperationStats load = metrics.stats(new ApiOperation("aggregate.load", "aggregates/order"));
+    assertThat(load.latency().count()).isEqualTo(1);
+    assertThat(load.statusCount(200)).isEqualTo(1);
+    assertThat(load.bytesReceived()).isGreaterThan(0);
+
+    HistogramMetrics.OperationStats save = metrics.stats(new ApiOperation("aggregate.save", "aggregates/order"));
+    assertThat(save.latency().count()).isEqualTo(1);
+    assertThat(save.bytesSent()).isGreaterThan(0);
+  }
+
+  @Test
+  public void testUpdateReportsConnectionTimings() throws IOException {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+    List<RequestMetrics> reported = new CopyOnWriteArrayList<>();
+
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig(builder -> builder.metrics(reported::add)))
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .build();
+
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 0, 1000)).thenReturn(getResource("/aggregate/placed_order1.json"));
+    when(apiCallback.eventsStored(eq(orderId), any(EventBatch.class))).thenReturn(OK);
+
+    orderClient.update(orderId, orderState -> new Order(orderState).cancel());
+
+    assertThat(reported).hasSize(2);
+    assertThat(reported.get(0).connectionTimings().connectionReused()).isFalse();
+    assertThat(reported.get(0).connectionTimings().connectNanos()).isGreaterThan(0);
+    assertThat(reported.get(0).connectionTimings().timeToFirstByteNanos()).isGreaterThan(0);
+    assertThat(reported.get(1).connectionTimings().connectionReused()).isTrue();
+  }
+
   @Test
   public void testUpdateIsIdempotent() throws IOException {
     UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
@@ -516,6 +595,116 @@ public class AggregateClientIT {
     assertThat(stateMap).doesNotContainKey(orderId);
   }
 
+  @Test
+  public void testStateCacheCatchesUpOnConcurrencyException() throws IOException {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+
+    Map<UUID, VersionedState<OrderState>> stateMap = new ConcurrentHashMap<>();
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig())
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .registerHandler(OrderCanceled.class, OrderState::handleOrderCanceled)
+        .withRetryStrategy(new RetryStrategy.Builder().withRetryCount(1).withSleepMs(0).build())
+        .build();
+
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 0, 1000)).thenReturn(getResource("/aggregate/placed_order1.json"));
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 1, 1000)).thenReturn(getResource("/aggregate/canceled_order1_since1.json"));
+    when(apiCallback.eventsStored(eq(orderId), any(EventBatch.class))).thenReturn(CONFLICT);
+
+    int eventsStored = orderClient.update(orderId, cancelUsingCache(stateMap));
+
+    // Canceled concurrently, which the retry sees from the caught up state without loading the whole history again
+    assertThat(eventsStored).isZero();
+    verify(apiCallback, times(1)).aggregateLoaded(aggregateType, orderId, 0, 1000);
+    verify(apiCallback, times(1)).aggregateLoaded(aggregateType, orderId, 1, 1000);
+    assertThat(stateMap.get(orderId).version()).isEqualTo(2);
+    assertThat(stateMap.get(orderId).state().status()).isEqualTo(OrderStatus.CANCELED);
+  }
+
+  @Test
+  public void testStateCacheCatchesUpOnConcurrencyExceptionAsync() throws Exception {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+
+    Map<UUID, VersionedState<OrderState>> stateMap = new ConcurrentHashMap<>();
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig())
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .registerHandler(OrderCanceled.class, OrderState::handleOrderCanceled)
+        .withRetryStrategy(new RetryStrategy.Builder().withRetryCount(1).withSleepMs(0).build())
+        .build();
+
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 0, 1000)).thenReturn(getResource("/aggregate/placed_order1.json"));
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 1, 1000)).thenReturn(getResource("/aggregate/canceled_order1_since1.json"));
+    when(apiCallback.eventsStored(eq(orderId), any(EventBatch.class))).thenReturn(CONFLICT);
+
+    int eventsStored = orderClient.updateAsync(orderId, cancelUsingCache(stateMap)).get();
+
+    assertThat(eventsStored).isZero();
+    verify(apiCallback, times(1)).aggregateLoaded(aggregateType, orderId, 0, 1000);
+    verify(apiCallback, times(1)).aggregateLoaded(aggregateType, orderId, 1, 1000);
+    assertThat(stateMap.get(orderId).version()).isEqualTo(2);
+  }
+
+  @Test
+  public void testStateCacheCatchesUpOnBulkConcurrencyException() throws IOException {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+
+    Map<UUID, VersionedState<OrderState>> stateMap = new ConcurrentHashMap<>();
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig())
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .registerHandler(OrderCanceled.class, OrderState::handleOrderCanceled)
+        .withRetryStrategy(new RetryStrategy.Builder().withRetryCount(1).withSleepMs(0).build())
+        .build();
+
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 0, 1000)).thenReturn(getResource("/aggregate/placed_order1.json"));
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 1, 1000)).thenReturn(getResource("/aggregate/canceled_order1_since1.json"));
+    when(apiCallback.eventBulkStored(any(BulkSaveEventsDto.class))).thenReturn(CONFLICT);
+
+    int eventsStored = orderClient.bulkUpdate(singleton(orderId), cancelUsingCache(stateMap));
+
+    // The state is not cached before the events are stored, and the retry starts from the caught up state
+    assertThat(eventsStored).isZero();
+    verify(apiCallback, times(1)).eventBulkStored(any(BulkSaveEventsDto.class));
+    verify(apiCallback, times(1)).aggregateLoaded(aggregateType, orderId, 0, 1000);
+    assertThat(stateMap.get(orderId).version()).isEqualTo(2);
+    assertThat(stateMap.get(orderId).state().status()).isEqualTo(OrderStatus.CANCELED);
+  }
+
+  private AggregateUpdate<OrderState> cancelUsingCache(Map<UUID, VersionedState<OrderState>> stateMap) {
+    StateCache<OrderState> stateCache = new StateCache<OrderState>() {
+
+      @Override
+      public void put(UUID aggregateId, VersionedState<OrderState> versionedState) {
+        stateMap.put(aggregateId, versionedState);
+      }
+
+      @Override
+      public Optional<VersionedState<OrderState>> get(UUID aggregateId) {
+        return Optional.ofNullable(stateMap.get(aggregateId));
+      }
+
+      @Override
+      public void invalidate(UUID aggregateId) {
+        stateMap.remove(aggregateId);
+      }
+
+    };
+
+    return new AggregateUpdate<OrderState>() {
+
+      @Override
+      public Optional<StateCache<OrderState>> stateCache() {
+        return Optional.of(stateCache);
+      }
+
+      @Override
+      public List<Event<?>> apply(OrderState state) {
+        return new Order(state).cancel();
+      }
+    };
+  }
+
   @Test
   public void testDeleteAggregateById() {
     UUID orderId = UUID.fromString("11111111-2222-3333-4444-555555555555");
@@ -583,6 +772,84 @@ public class AggregateClientIT {
     verify(apiCallback, times(4)).eventsStored(eq(orderId), any(EventBatch.class));
   }
 
+  @Test
+  public void testRetryOnConcurrencyExceptionDuringUpdateAsync() throws IOException {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig())
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .registerHandler(OrderCanceled.class, OrderState::handleOrderCanceled)
+        .withRetryStrategy(new RetryStrategy.Builder().withRetryCount(3).withSleepMs(10).build())
+        .build();
+
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 0, 1000)).thenReturn(getResource("/aggregate/placed_order1.json"));
+    when(apiCallback.eventsStored(eq(orderId), any(EventBatch.class))).thenReturn(CONFLICT);
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () ->
+        orderClient.updateAsync(orderId, orderState -> new Order(orderState).cancel()).get()
+    );
+
+    assertThat(exception.getCause()).isInstanceOf(ConcurrencyException.class);
+    verify(apiCallback, times(4)).eventsStored(eq(orderId), any(EventBatch.class));
+  }
+
+  @Test
+  public void testRetryFailingSynchronouslyDuringUpdateAsync() throws IOException {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig())
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .registerHandler(OrderCanceled.class, OrderState::handleOrderCanceled)
+        .withRetryStrategy(new RetryStrategy.Builder().withRetryCount(3).withSleepMs(10).build())
+        .build();
+
+    when(apiCallback.aggregateLoaded(aggregateType, orderId, 0, 1000)).thenReturn(getResource("/aggregate/placed_order1.json"));
+    when(apiCallback.eventsStored(eq(orderId), any(EventBatch.class))).thenReturn(CONFLICT);
+
+    IllegalStateException failure = new IllegalStateException("Cache unavailable");
+    AtomicInteger attempts = new AtomicInteger();
+    StateCache<OrderState> stateCache = new StateCache<OrderState>() {
+
+      @Override
+      public void put(UUID aggregateId, VersionedState<OrderState> versionedState) {
+      }
+
+      @Override
+      public Optional<VersionedState<OrderState>> get(UUID aggregateId) {
+        // Throws on the retry attempt, before any future is returned
+        if (attempts.incrementAndGet() > 1) {
+          throw failure;
+        }
+        return Optional.empty();
+      }
+
+      @Override
+      public void invalidate(UUID aggregateId) {
+      }
+
+    };
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () ->
+        orderClient.updateAsync(orderId, new AggregateUpdate<OrderState>() {
+
+          @Override
+          public Optional<StateCache<OrderState>> stateCache() {
+            return Optional.of(stateCache);
+          }
+
+          @Override
+          public List<Event<?>> apply(OrderState state) {
+            return new Order(state).cancel();
+          }
+        }).get(5, SECONDS)
+    );
+
+    assertThat(exception.getCause()).isSameAs(failure);
+    verify(apiCallback, times(1)).eventsStored(eq(orderId), any(EventBatch.class));
+  }
+
   @Test
   public void testLoadAggregateState() throws IOException {
     UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
@@ -625,6 +892,89 @@ public class AggregateClientIT {
     assertThat(eventsStored).isEqualTo(0);
   }
 
+  @Test
+  public void testLoadAggregateStateWithParallelPageLoads() {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+    int aggregateVersion = 40;
+
+    List<String> handledOrderIds = new CopyOnWriteArrayList<>();
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig())
+        .withLimit(2)
+        .withParallelPageLoads(4)
+        .registerHandler(OrderPlaced.class, (state, event) -> {
+          OrderState placed = state.handleOrderPlaced(event);
+          handledOrderIds.add(placed.orderId());
+          return placed;
+        })
+        .build();
+
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    when(apiCallback.aggregateLoaded(eq(aggregateType), eq(orderId), anyInt(), eq(2))).thenAnswer(invocation -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      Thread.sleep(20);
+      inFlight.decrementAndGet();
+      return loadedPage(orderId, invocation.getArgument(2), 2, aggregateVersion);
+    });
+
+    int eventsStored = orderClient.update(orderId, orderState -> {
+      assertThat(orderState.status()).isEqualTo(OrderStatus.PLACED);
+      return emptyList();
+    });
+
+    assertThat(eventsStored).isEqualTo(0);
+    assertThat(handledOrderIds).hasSize(aggregateVersion);
+    for (int i = 0; i < aggregateVersion; i++) {
+      assertThat(handledOrderIds.get(i)).isEqualTo(String.valueOf(i + 1));
+    }
+    assertThat(maxInFlight.get()).isBetween(2, 4);
+    verify(apiCallback, times(aggregateVersion / 2)).aggregateLoaded(eq(aggregateType), eq(orderId), anyInt(), eq(2));
+  }
+
+  @Test
+  public void testParallelPageLoadsStopOnFirstFailure() {
+    UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
+    String aggregateType = "order";
+    int aggregateVersion = 40;
+
+    AggregateClient<OrderState> orderClient = aggregateClient(aggregateType, OrderState.class, getConfig())
+        .withLimit(2)
+        .withParallelPageLoads(4)
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .build();
+
+    when(apiCallback.aggregateLoaded(eq(aggregateType), eq(orderId), anyInt(), eq(2))).thenAnswer(invocation -> {
+      int since = invocation.getArgument(2);
+      if (since == 6) {
+        throw new WebApplicationException(FORBIDDEN);
+      }
+      Thread.sleep(20);
+      return loadedPage(orderId, since, 2, aggregateVersion);
+    });
+
+    ApiException exception = assertThrows(ApiException.class, () -> orderClient.update(orderId, orderState -> emptyList()));
+
+    assertThat(exception.statusCode()).isEqualTo(403);
+    // The first page and at most the pages in flight when the page failed
+    verify(apiCallback, atMost(1 + 4)).aggregateLoaded(eq(aggregateType), eq(orderId), anyInt(), eq(2));
+  }
+
+  private static Map<String, Object> loadedPage(UUID orderId, int since, int limit, int aggregateVersion) {
+    List<Map<String, Object>> events = new ArrayList<>();
+    for (int version = since + 1; version <= Math.min(since + limit, aggregateVersion); version++) {
+      Map<String, Object> data = ImmutableMap.of("orderId", String.valueOf(version), "orderAmount", version);
+      events.add(ImmutableMap.of("eventId", UUID.randomUUID().toString(), "eventType", "OrderPlaced", "data", data));
+    }
+    Map<String, Object> page = new HashMap<>();
+    page.put("aggregateId", orderId.toString());
+    page.put("aggregateType", "order");
+    page.put("aggregateVersion", aggregateVersion);
+    page.put("events", events);
+    page.put("hasMore", since + limit < aggregateVersion);
+    return page;
+  }
+
   @Test
   public void testLoadAggregateStateMissingHandler() throws IOException {
     UUID orderId = UUID.fromString("723ecfce-14e9-4889-98d5-a3d0ad54912f");
@@ -732,6 +1082,40 @@ public class AggregateClientIT {
     assertNotNull(event.data());
   }
 
+  @Test
+  public void testWarmUp() {
+    SerializedClientConfig config = getConfig();
+    AggregateClient<OrderState> orderClient = aggregateClient("order", OrderState.class, config)
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .build();
+
+    orderClient.warmUp(3);
+
+    assertThat(config.httpClient().connectionPool().connectionCount()).isPositive();
+
+    UUID orderId = UUID.randomUUID();
+    when(apiCallback.eventsStored(eq(orderId), any(EventBatch.class))).thenReturn(OK);
+    orderClient.save(saveRequest().withAggregateId(orderId).withEvents(singletonList(orderPlaced("order-123", 1234L))).build());
+
+    verify(apiCallback).eventsStored(eq(orderId), argThat(containsEventType("OrderPlaced")));
+  }
+
+  @Test
+  public void testFailoverToReachableRootApiUrl() {
+    SerializedClientConfig config = getConfig(builder -> builder.rootApiUrls("http://localhost:1/api-stub/", dropwizard.baseUri() + "/api-stub/"));
+    AggregateClient<OrderState> orderClient = aggregateClient("order", OrderState.class, config)
+        .registerHandler(OrderPlaced.class, OrderState::handleOrderPlaced)
+        .build();
+
+    UUID orderId = UUID.randomUUID();
+    when(apiCallback.eventsStored(eq(orderId), any(EventBatch.class))).thenReturn(OK);
+    for (int i = 0; i < 3; i++) {
+      orderClient.save(saveRequest().withAggregateId(orderId).withEvents(singletonList(orderPlaced("order-123", 1234L))).build());
+    }
+
+    verify(apiCallback, times(3)).eventsStored(eq(orderId), argThat(containsEventType("OrderPlaced")));
+  }
+
   private AggregateClient<OrderState> getOrderClient() {
     return aggregateClient("order", OrderState.class, getConfig())
         .registerHandler("order-placed", OrderPlaced.class, OrderState::handleOrderPlaced)
@@ -739,10 +1123,17 @@ public class AggregateClientIT {
   }
 
   private SerializedClientConfig getConfig() {
-    return SerializedClientConfig.serializedConfig()
+    return getConfig(builder -> {
+    });
+  }
+
+  private SerializedClientConfig getConfig(Consumer<SerializedClientConfig.Builder> customizer) {
+    SerializedClientConfig.Builder builder = SerializedClientConfig.serializedConfig()
         .rootApiUrl(dropwizard.baseUri() + "/api-stub/")
         .accessKey("aaaaa")
-        .secretAccessKey("bbbbb").build();
+        .secretAccessKey("bbbbb");
+    customizer.accept(builder);
+    return builder.build();
   }
 
   private String getResource(String resource) throws IOException {
@@ -5,6 +5,9 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.google.common.collect.ImmutableSet;
 import io.dropwizard.testing.junit5.DropwizardClientExtension;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import io.serialized.client.ApiException;
+import io.serialized.client.HedgingPolicy;
+import io.serialized.client.ResponseCache;
 import io.serialized.client.SerializedClientConfig;
 import io.serialized.client.projection.Function;
 import io.serialized.client.projection.ProjectionApiStub;
@@ -24,11 +27,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.StreamSupport;
 
 import static io.serialized.client.SerializedClientConfig.serializedConfig;
@@ -229,6 +242,24 @@ public class ProjectionClientIT {
     assertThat(value.handlers().get(0).functions().get(2).targetSelector()).isEqualTo("$.projection.wins");
   }
 
+  @Test
+  public void testCreateOrUpdateProjectionAsync() throws Exception {
+
+    ProjectionClient projectionClient = getProjectionClient();
+
+    ProjectionDefinition projectionDefinition =
+        ProjectionDefinition.singleProjection("high-score")
+            .feed("games")
+            .withIdField("winner")
+            .addHandler(handler("GameFinished", inc().with(targetSelector("wins")).build())).build();
+
+    projectionClient.createOrUpdateAsync(projectionDefinition).get();
+
+    ArgumentCaptor<ProjectionDefinition> captor = ArgumentCaptor.forClass(ProjectionDefinition.class);
+    verify(apiCallback, times(1)).definitionUpdated(captor.capture());
+    assertThat(captor.getValue().projectionName()).isEqualTo("high-score");
+  }
+
   @Test
   public void testCreateProjectionWithSingleHandler() {
 
@@ -346,6 +377,34 @@ public class ProjectionClientIT {
     assertThat(definition.handlers()).hasSize(1);
   }
 
+  @Test
+  public void testGetDefinitionRevalidatesCachedResponse() {
+    ResponseCache responseCache = new ResponseCache(10);
+    ProjectionClient projectionClient = ProjectionClient.projectionClient(getConfig(builder -> builder.responseCache(responseCache))).build();
+
+    ProjectionDefinition expected = ProjectionDefinition.aggregatedProjection("game-count")
+        .feed("games")
+        .addHandler(handler("GameFinished", inc().with(targetSelector("count")).build())).build();
+    when(apiCallback.definitionFetched()).thenReturn(expected);
+
+    ProjectionDefinition first = projectionClient.getDefinition("game-count");
+    ProjectionDefinition second = projectionClient.getDefinition("game-count");
+
+    assertThat(second).isSameAs(first);
+    assertThat(responseCache.hits()).isEqualTo(1);
+    verify(apiCallback, times(1)).definitionFetched();
+  }
+
+  @Test
+  public void testUnexpectedNotModifiedFails() {
+    ProjectionClient projectionClient = getProjectionClient();
+    when(apiCallback.definitionFetched()).thenThrow(new WebApplicationException(Response.Status.NOT_MODIFIED));
+
+    ApiException exception = assertThrows(ApiException.class, () -> projectionClient.getDefinition("game-count"));
+
+    assertThat(exception.statusCode()).isEqualTo(304);
+  }
+
   @Test
   public void testListDefinitions() {
 
@@ -385,6 +444,107 @@ public class ProjectionClientIT {
     assertThat(projection.data().orderAmount).isEqualTo(12345L);
   }
 
+  @Test
+  public void testSingleProjectionAsync() throws Exception {
+
+    ProjectionClient projectionClient = getProjectionClient();
+
+    String projectionName = "orders";
+    String projectionId = "84e3565e-cd61-44e7-9769-c4663588c4dd";
+    when(apiCallback.singleProjectionFetched(projectionName, projectionId)).thenReturn(getResource("/projection/getSingleProjection.json"));
+
+    ProjectionQuery query = single("orders").withId(projectionId).build(OrderBalanceProjection.class);
+    ProjectionResponse<OrderBalanceProjection> projection = projectionClient.<OrderBalanceProjection>queryAsync(query).get();
+
+    assertThat(projection.projectionId()).isEqualTo(projectionId);
+    assertThat(projection.data().orderAmount).isEqualTo(12345L);
+  }
+
+  @Test
+  public void testHedgedSingleProjectionQuery() throws IOException {
+
+    HedgingPolicy hedgingPolicy = new HedgingPolicy.Builder().withDelay(Duration.ofMillis(50)).withPercentile(0).build();
+    ProjectionClient projectionClient = ProjectionClient.projectionClient(getConfig(builder -> builder.hedgingPolicy(hedgingPolicy))).build();
+
+    String projectionName = "orders";
+    String projectionId = "84e3565e-cd61-44e7-9769-c4663588c4dd";
+    String projectionJson = getResource("/projection/getSingleProjection.json");
+    when(apiCallback.singleProjectionFetched(projectionName, projectionId))
+        .thenAnswer(invocation -> {
+          Thread.sleep(5000);
+          return projectionJson;
+        })
+        .thenReturn(projectionJson);
+
+    long start = System.currentTimeMillis();
+    ProjectionQuery query = single("orders").withId(projectionId).build(OrderBalanceProjection.class);
+    ProjectionResponse<OrderBalanceProjection> projection = projectionClient.query(query);
+
+    assertThat(System.currentTimeMillis() - start).isLessThan(5000);
+    assertThat(projection.data().orderAmount).isEqualTo(12345L);
+    verify(apiCallback, times(2)).singleProjectionFetched(projectionName, projectionId);
+  }
+
+  @Test
+  public void testHedgedBlockingQueriesAreNotLimitedByDispatcher() throws Exception {
+
+    HedgingPolicy hedgingPolicy = new HedgingPolicy.Builder().withDelay(Duration.ofMillis(1000)).withPercentile(0).build();
+    ProjectionClient projectionClient = ProjectionClient.projectionClient(getConfig(builder -> builder
+        .hedgingPolicy(hedgingPolicy)
+        .maxConcurrentRequests(1))).build();
+
+    String projectionName = "orders";
+    String projectionId = "84e3565e-cd61-44e7-9769-c4663588c4dd";
+    String projectionJson = getResource("/projection/getSingleProjection.json");
+    when(apiCallback.singleProjectionFetched(projectionName, projectionId)).thenAnswer(invocation -> {
+      Thread.sleep(300);
+      return projectionJson;
+    });
+
+    ProjectionQuery query = single("orders").withId(projectionId).build(OrderBalanceProjection.class);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      long start = System.currentTimeMillis();
+      List<Future<ProjectionResponse<OrderBalanceProjection>>> responses = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        responses.add(executor.submit(() -> projectionClient.query(query)));
+      }
+      for (Future<ProjectionResponse<OrderBalanceProjection>> response : responses) {
+        assertThat(response.get().data().orderAmount).isEqualTo(12345L);
+      }
+
+      // Queued one by one on the dispatcher, the queries would take at least 1200 ms
+      assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testConcurrentIdenticalQueriesAreCoalesced() throws Exception {
+
+    ProjectionClient projectionClient = ProjectionClient.projectionClient(getConfig(builder -> builder.coalesceReads(true))).build();
+
+    String projectionName = "orders";
+    String projectionId = "84e3565e-cd61-44e7-9769-c4663588c4dd";
+    String projectionJson = getResource("/projection/getSingleProjection.json");
+    when(apiCallback.singleProjectionFetched(projectionName, projectionId)).thenAnswer(invocation -> {
+      Thread.sleep(500);
+      return projectionJson;
+    });
+
+    ProjectionQuery query = single("orders").withId(projectionId).build(OrderBalanceProjection.class);
+    List<CompletableFuture<ProjectionResponse<OrderBalanceProjection>>> responses = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      responses.add(projectionClient.queryAsync(query));
+    }
+
+    for (CompletableFuture<ProjectionResponse<OrderBalanceProjection>> response : responses) {
+      assertThat(response.get().data().orderAmount).isEqualTo(12345L);
+    }
+    verify(apiCallback, times(1)).singleProjectionFetched(projectionName, projectionId);
+  }
+
   @Test
   public void testCountSingleProjection() throws IOException {
 
@@ -638,11 +798,17 @@ public class ProjectionClientIT {
   }
 
   private SerializedClientConfig getConfig() {
-    return serializedConfig()
+    return getConfig(builder -> {
+    });
+  }
+
+  private SerializedClientConfig getConfig(Consumer<SerializedClientConfig.Builder> customizer) {
+    SerializedClientConfig.Builder builder = serializedConfig()
         .rootApiUrl(dropwizard.baseUri() + "/api-stub/")
         .accessKey("aaaaa")
-        .secretAccessKey("bbbbb")
-        .build();
+        .secretAccessKey("bbbbb");
+    customizer.accept(builder);
+    return builder.build();
   }
 
   private String getResource(String resource) throws IOException {
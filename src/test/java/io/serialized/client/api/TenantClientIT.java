@@ -80,6 +80,27 @@ public class TenantClientIT {
     verify(apiCallback, times(1)).tenantUpdated(tenant);
   }
 
+  @Test
+  public void testDeleteTenantAsync() throws Exception {
+
+    TenantClient tenantClient = getTenantClient();
+
+    UUID tenantId = UUID.randomUUID();
+    tenantClient.deleteTenantAsync(tenantId).get();
+    verify(apiCallback, times(1)).tenantDeleted(tenantId);
+  }
+
+  @Test
+  public void testUpdateTenantAsync() throws Exception {
+
+    TenantClient tenantClient = getTenantClient();
+
+    UUID tenantId = UUID.randomUUID();
+    Tenant tenant = Tenant.newTenant(tenantId).reference("ref1").build();
+    tenantClient.updateTenantAsync(tenant).get();
+    verify(apiCallback, times(1)).tenantUpdated(tenant);
+  }
+
   @Test
   public void testListTenants() throws IOException {
 
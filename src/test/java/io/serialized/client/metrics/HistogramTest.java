@@ -0,0 +1,42 @@
+package io.serialized.client.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class HistogramTest {
+
+  @Test
+  public void testEmptyHistogram() {
+    Histogram histogram = new Histogram();
+
+    assertThat(histogram.count()).isEqualTo(0);
+    assertThat(histogram.mean()).isEqualTo(0);
+    assertThat(histogram.percentile(99)).isEqualTo(0);
+  }
+
+  @Test
+  public void testPercentilesAreWithinRelativeError() {
+    Histogram histogram = new Histogram();
+    for (long i = 1; i <= 10_000; i++) {
+      histogram.record(i * 1000);
+    }
+
+    assertThat(histogram.count()).isEqualTo(10_000);
+    assertThat(histogram.max()).isEqualTo(10_000_000);
+    assertThat(histogram.mean()).isCloseTo(5_000_500, within(1.0));
+    assertThat((double) histogram.percentile(50)).isCloseTo(5_000_000, within(5_000_000 * 0.125));
+    assertThat((double) histogram.percentile(99)).isCloseTo(9_900_000, within(9_900_000 * 0.125));
+    assertThat(histogram.percentile(100)).isEqualTo(10_000_000);
+  }
+
+  @Test
+  public void testBucketsAreContiguous() {
+    for (int i = 1; i < 400; i++) {
+      assertThat(Histogram.bucketIndex(Histogram.upperBound(i - 1) + 1)).isEqualTo(i);
+      assertThat(Histogram.bucketIndex(Histogram.upperBound(i))).isEqualTo(i);
+    }
+  }
+
+}
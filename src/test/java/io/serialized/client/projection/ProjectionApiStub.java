@@ -28,6 +28,8 @@ import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
 @Consumes(APPLICATION_JSON)
 public class ProjectionApiStub {
 
+  public static final String DEFINITION_ETAG = "\"v1\"";
+
   private final ProjectionApiCallback callback;
 
   public ProjectionApiStub(ProjectionApiCallback callback) {
@@ -50,9 +52,13 @@ public class ProjectionApiStub {
 
   @GET
   @Path("definitions/{projectionName}")
-  public Response getDefinition(@PathParam("projectionName") String projectionName) {
+  public Response getDefinition(@PathParam("projectionName") String projectionName,
+                                @HeaderParam("If-None-Match") String ifNoneMatch) {
+    if (DEFINITION_ETAG.equals(ifNoneMatch)) {
+      return Response.notModified().build();
+    }
     Object definition = callback.definitionFetched();
-    return Response.ok(APPLICATION_JSON_TYPE).entity(definition).build();
+    return Response.ok(APPLICATION_JSON_TYPE).entity(definition).header("ETag", DEFINITION_ETAG).build();
   }
 
   @PUT